@@ -0,0 +1,226 @@
+package intelligence;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+import model.Game;
+import model.Position;
+
+/**
+ * Benchmarks of the hot paths of the model and the engine. Every benchmark runs
+ * on each position of a fixed corpus, first for a couple of warmup rounds and
+ * then for the measured rounds, and prints its result as a JSON line.
+ * <p>
+ * Benchmarks live next to the sources in their own folder and in the engine's
+ * package, so they can reach the internals of the search. Compile them together
+ * with the app and run them with
+ * <p>
+ * java intelligence.Benchmark [--warmup n] [--rounds n] [--time ms] [pattern]
+ * <p>
+ * where pattern is a regular expression that the names of the benchmarks to run
+ * have to contain, for example "game\\.getMoves/bear-off".
+ */
+public class Benchmark {
+
+    /**
+     * Positions the benchmarks run on, as described in Position.parse.
+     */
+    private static final Map<String, String> CORPUS = new LinkedHashMap<>();
+
+    static {
+        CORPUS.put("opening", "0,2,0,0,0,0,-5,0,-3,0,0,0,5,-5,0,0,0,3,0,5,0,0,0,0,-2,0 b 31");
+        CORPUS.put("opening-double", "0,2,0,0,0,0,-5,0,-3,0,0,0,5,-5,0,0,0,3,0,5,0,0,0,0,-2,0 w 66");
+        CORPUS.put("middle", "0,2,0,0,0,-1,-5,0,-3,0,0,0,4,-4,0,0,0,3,0,4,2,0,0,0,-2,0 w 42");
+        CORPUS.put("bar", "2,0,-2,-2,-2,0,-2,0,-3,0,0,0,5,-4,0,0,0,3,0,5,0,0,0,0,0,0 b 55");
+        CORPUS.put("bear-off", "0,-3,-2,-3,-2,0,0,0,0,0,0,0,0,0,0,0,0,0,0,3,4,0,3,0,5,0 w 66");
+        CORPUS.put("bear-off-small", "0,-4,0,0,0,-3,-2,0,0,0,0,0,0,0,0,0,0,0,0,3,4,0,3,0,5,0 w 21");
+    }
+
+    /**
+     * Iterations of the searches that the search benchmarks make.
+     */
+    private static final Settings SETTINGS = Settings.parse("iterations=2000");
+
+    /**
+     * Results of the benchmarks end up here so the JIT can't drop the work.
+     */
+    private static volatile long sink;
+
+    // MARK: - Main
+
+    public static void main(String[] args) {
+        int warmup = 3;
+        int rounds = 5;
+        long time = 1000;
+        Pattern filter = Pattern.compile("");
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "--rounds":
+                    rounds = Integer.parseInt(args[++i]);
+                    break;
+                case "--time":
+                    time = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    filter = Pattern.compile(args[i]);
+            }
+        }
+
+        for (Map.Entry<String, String> entry : CORPUS.entrySet()) {
+            Position position = Position.parse(entry.getValue());
+
+            for (Map.Entry<String, LongSupplier> benchmark : benchmarks(position).entrySet()) {
+                String name = benchmark.getKey() + "/" + entry.getKey();
+                if (!filter.matcher(name).find())
+                    continue;
+
+                System.out.println(run(name, benchmark.getValue(), warmup, rounds, time));
+            }
+        }
+    }
+
+    // MARK: - Benchmarks
+
+    /**
+     * Returns the benchmarks of a position. Each one does a single operation and
+     * returns something that depends on its result.
+     */
+    private static Map<String, LongSupplier> benchmarks(Position position) {
+        Map<String, LongSupplier> benchmarks = new LinkedHashMap<>();
+        int[] points = position.points;
+        int turn = position.turn;
+        ArrayList<Integer> dice = position.dice;
+
+        // Every move the player could make, used to benchmark making them.
+        ArrayList<int[]> moves = new ArrayList<>();
+        for (int start = 0; start < 26; start++) {
+            for (int end : Game.getMoves(points, turn, dice, start)) {
+                moves.add(new int[]{start, end});
+            }
+        }
+
+        benchmarks.put("game.getMoves", () -> {
+            long total = 0;
+            for (int start = 0; start < 26; start++) {
+                total += Game.getMoves(points, turn, dice, start).size();
+            }
+            return total;
+        });
+
+        benchmarks.put("game.getMovableCheckers", () -> Game.getMovableCheckers(points, turn, dice)[0]);
+
+        benchmarks.put("game.move", () -> {
+            long total = 0;
+            for (int[] move : moves) {
+                total += Game.move(points, move[0], move[1])[move[1] % 26];
+            }
+            return total;
+        });
+
+        benchmarks.put("game.isMoveValid", () -> {
+            long total = 0;
+            for (int start = 0; start < 26; start++) {
+                for (int die = 1; die < 7; die++) {
+                    if (Game.isMoveValid(points, start, start + turn * die))
+                        total++;
+                }
+            }
+            return total;
+        });
+
+        long[] games = {0};
+        benchmarks.put("computer.makeRandomMoves", () -> {
+            int[] board = Game.clonePoints(points);
+            return Computer.makeRandomMoves(board, turn, new Dice(games[0]++)).size();
+        });
+
+        // The tree keeps growing while we measure, so we start over once in a while
+        // to measure iterations of a young tree.
+        Computer.Node[] tree = {null};
+        int[] iteration = {0};
+        benchmarks.put("computer.preSearch", () -> {
+            if (tree[0] == null || iteration[0] == SETTINGS.iterations) {
+                tree[0] = Computer.root(points, turn, dice);
+                iteration[0] = 0;
+            }
+            Computer.search(tree[0], SETTINGS, points, turn, iteration[0], ++iteration[0]);
+            return tree[0].getAll();
+        });
+
+        // The dice of a search only depend on Dice.SEED, so on a single thread every decision is the same,
+        // also across runs.
+        Computer computer = new Computer(Runnable::run, SETTINGS);
+        benchmarks.put("computer.decide", () -> computer.decide(points, turn, dice).visits);
+
+        return benchmarks;
+    }
+
+    // MARK: - Measuring
+
+    /**
+     * Runs a benchmark for the warmup rounds and then measures the given number of
+     * rounds of about the given length. Returns the results as JSON.
+     */
+    private static String run(String name, LongSupplier benchmark, int warmup, int rounds, long time) {
+        for (int i = 0; i < warmup; i++) {
+            round(benchmark, time);
+        }
+
+        double[] results = new double[rounds];
+        long operations = 0;
+        for (int i = 0; i < rounds; i++) {
+            long[] round = round(benchmark, time);
+            results[i] = (double) round[1] / round[0];
+            operations += round[0];
+        }
+
+        double mean = 0;
+        for (double result : results) {
+            mean += result / rounds;
+        }
+
+        double squares = 0;
+        for (double result : results) {
+            squares += (result - mean) * (result - mean);
+        }
+        // JSON has no NaN, so a single round has no error.
+        String error = rounds < 2 ? "null" : String.format(Locale.ROOT, "%.2f", Math.sqrt(squares / (rounds - 1)));
+
+        return String.format(Locale.ROOT,
+                "{\"benchmark\":\"%s\",\"mode\":\"avgt\",\"unit\":\"ns/op\",\"score\":%.2f,\"error\":%s,"
+                        + "\"opsPerSecond\":%.1f,\"rounds\":%d,\"operations\":%d}",
+                name, mean, error, 1e9 / mean, rounds, operations);
+    }
+
+    /**
+     * Runs the benchmark for about the given number of milliseconds and returns the
+     * number of operations and the nanoseconds they took.
+     */
+    private static long[] round(LongSupplier benchmark, long time) {
+        long deadline = System.nanoTime() + time * 1_000_000;
+        long operations = 0;
+        long total = 0;
+        long start = System.nanoTime();
+        long now = start;
+
+        // Check the clock only every couple of operations so it doesn't dominate.
+        for (int batch = 1; now < deadline; batch = Math.min(2 * batch, 1 << 16)) {
+            for (int i = 0; i < batch; i++) {
+                total += benchmark.getAsLong();
+            }
+            operations += batch;
+            now = System.nanoTime();
+        }
+
+        sink += total;
+        return new long[]{operations, now - start};
+    }
+}
@@ -0,0 +1,143 @@
+import java.io.*;
+import java.util.Locale;
+import java.util.concurrent.*;
+
+import intelligence.Computer;
+import intelligence.EvaluationCache;
+import intelligence.Play;
+import intelligence.Settings;
+import model.Position;
+
+/**
+ * Command line tool that analyzes positions in bulk. It reads one position per
+ * line from a file or standard input and prints the computer's analysis of each
+ * one as a JSON line as soon as it's done.
+ * <p>
+ * Usage: java Analyze [--threads n] [--settings key=value,...] [--cache] [file]
+ * <p>
+ * Settings are written as described in Settings.parse. Positions are analyzed
+ * from scratch so runs can be repeated and compared, unless --cache lets the
+ * computer use and fill the shared evaluation cache.
+ * <p>
+ * Lines are written as described in Position.parse, so they may also be XGIDs or
+ * use Position IDs for the board. Empty lines and lines starting with # are
+ * skipped.
+ */
+public class Analyze {
+
+    /**
+     * z-score of the 95% confidence interval.
+     */
+    private static final double Z = 1.96;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Settings settings = Settings.DEFAULT;
+        boolean cache = false;
+        String file = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--settings") && i + 1 < args.length) {
+                settings = Settings.parse(args[++i]);
+            } else if (args[i].equals("--cache")) {
+                cache = true;
+            } else if (!args[i].equals("-")) {
+                file = args[i];
+            }
+        }
+
+        Reader input = file == null ? new InputStreamReader(System.in) : new FileReader(file);
+        PrintStream output = System.out;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Computer computer = cache
+            ? new Computer(executor, settings, EvaluationCache.shared())
+            : new Computer(executor, settings);
+
+        // Don't read much further than we can analyze.
+        Semaphore pending = new Semaphore(2 * threads);
+
+        try (BufferedReader reader = new BufferedReader(input)) {
+            String line;
+            int number = 0;
+
+            while ((line = reader.readLine()) != null) {
+                number++;
+
+                if (line.isBlank() || line.startsWith("#"))
+                    continue;
+
+                Position position;
+                try {
+                    position = Position.parse(line);
+                } catch (IllegalArgumentException e) {
+                    print(output, error(number, e.getMessage()));
+                    continue;
+                }
+
+                int index = number;
+
+                pending.acquire();
+                executor.execute(() -> {
+                    try {
+                        // We time the decision, not how long it waited for a thread.
+                        long start = System.nanoTime();
+                        Play play = computer.decide(position.points, position.turn, position.dice);
+                        print(output, result(index, position, play, System.nanoTime() - start));
+                    } catch (RuntimeException e) {
+                        print(output, error(index, String.valueOf(e)));
+                    } finally {
+                        pending.release();
+                    }
+                });
+            }
+        }
+
+        // Wait for the remaining positions.
+        pending.acquire(2 * threads);
+        executor.shutdown();
+    }
+
+    private static synchronized void print(PrintStream output, String line) {
+        output.println(line);
+        output.flush();
+    }
+
+    // MARK: - JSON
+
+    private static String result(int line, Position position, Play play, long nanos) {
+        StringBuilder moves = new StringBuilder();
+        for (Computer.Move move : play.moves) {
+            if (moves.length() > 0)
+                moves.append(' ');
+            moves.append(move);
+        }
+
+        double[] interval = play.interval(Z);
+
+        return String.format(Locale.ROOT,
+                "{\"line\":%d,\"position\":\"%s\",\"id\":\"%s\",\"play\":\"%s\",\"win\":%.4f,\"ci\":[%.4f,%.4f],"
+                        + "\"variance\":%s,\"visits\":%d,\"iterations\":%d,\"nodes\":%d,\"ms\":%.1f}",
+                line, position, position.id(), moves, play.win, interval[0], interval[1], number(play.stats.variance),
+                play.visits, play.stats.iterations, play.stats.nodes, nanos / 1e6);
+    }
+
+    /**
+     * Writes a number in JSON, which has no NaN or infinity, so they become null.
+     */
+    private static String number(double value) {
+        if (!Double.isFinite(value))
+            return "null";
+        return String.format(Locale.ROOT, "%.3e", value);
+    }
+
+    private static String error(int line, String message) {
+        return String.format(Locale.ROOT, "{\"line\":%d,\"error\":\"%s\"}", line, escape(message));
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -2,27 +2,32 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.EventObject;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JFrame;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 import intelligence.Computer;
+import intelligence.Play;
+import intelligence.Progress;
 import model.Game;
 import model.Model;
 import model.Player;
 
+import view.BoardSnapshot;
 import view.BoardView;
 import view.SettingsView;
 
 //
 
 class Controller extends JFrame
-        implements ActionListener, BoardView.Delegate, SettingsView.Delegate, Computer.Delegate {
+        implements ActionListener, BoardView.Delegate, SettingsView.Delegate {
 
     // MARK: - State
 
@@ -47,6 +52,18 @@ class Controller extends JFrame
      */
     private final JMenuItem menuItemStartGame;
     private final JMenuItem menuItemUndo;
+    private final JCheckBoxMenuItem menuItemHints;
+
+    /**
+     * Counts the computer's decisions so that we can tell the progress of the
+     * current one from older ones.
+     */
+    private long decision;
+
+    /**
+     * The game as it was when it last changed.
+     */
+    private BoardSnapshot snapshot;
 
     // MARK: - Constructor
 
@@ -59,7 +76,8 @@ class Controller extends JFrame
         this.model = new Model();
         this.settings = new SettingsView(this);
         this.board = new BoardView(this);
-        this.computer = new Computer(this);
+        this.computer = new Computer();
+        this.publish();
 
         // MenuBar
         JMenuBar menu_bar = new JMenuBar();
@@ -74,8 +92,12 @@ class Controller extends JFrame
         this.menuItemUndo = new JMenuItem("Razveljavi zadnjo potezo.");
         igra_menu.add(this.menuItemUndo);
 
+        this.menuItemHints = new JCheckBoxMenuItem("Prikaži namige računalnika.");
+        igra_menu.add(this.menuItemHints);
+
         this.menuItemStartGame.addActionListener(this);
         this.menuItemUndo.addActionListener(this);
+        this.menuItemHints.addActionListener(this);
 
         // Render the settings view.
         this.onStop();
@@ -93,37 +115,6 @@ class Controller extends JFrame
         return this.model.black;
     }
 
-    /**
-     * Returns the direction of the player that is currently on turn.
-     */
-    public int turn() {
-        Game game = this.model.getGame();
-        return game.getTurn();
-    }
-
-    /**
-     * Returns the rolled dice.
-     */
-    public int[] dice() {
-        Game game = this.model.getGame();
-        ArrayList<Integer> dice = game.getDice();
-        int[] clone = new int[dice.size()];
-
-        for (int i = 0; i < dice.size(); i++) {
-            clone[i] = dice.get(i);
-        }
-
-        return clone;
-    }
-
-    /**
-     * Returns the board.
-     */
-    public int[] board() {
-        Game game = this.model.getGame();
-        return game.getPoints();
-    }
-
     /**
      * Returns all drop positions of a lifted checker.
      */
@@ -135,25 +126,8 @@ class Controller extends JFrame
     /**
      * Returns all possible moves in this turn.
      */
-    public Set<Integer> movable() {
-        HashSet<Integer> points = new HashSet<>();
-        Game game = this.model.getGame();
-
-        int[] checkers = game.getMovableCheckers();
-        for (int i = 0; i < checkers.length; i++) {
-            if (checkers[i] > 0)
-                points.add(i);
-        }
-
-        return points;
-    }
-
-    /**
-     * Returns the state of the current game.
-     */
-    public Game.State state() {
-        Game game = this.model.getGame();
-        return game.getState();
+    private Set<Integer> movable() {
+        return this.snapshot.movable;
     }
 
     // MARK: - Methods
@@ -162,6 +136,10 @@ class Controller extends JFrame
      * Checks if it has to perform a move.
      */
     public void tick() {
+        // Nothing plays while the board isn't in the window.
+        if (this.board.getParent() == null)
+            return;
+
         Game game = this.model.getGame();
 
         int turn = game.getTurn();
@@ -174,21 +152,47 @@ class Controller extends JFrame
             System.out.println("White is on the move!");
         }
 
-        // Check that computer has to make a turn.
-        if ((!wcpu && !bcpu) || game.getState() != Game.State.IN_PROGRESS)
+        if (game.getState() != Game.State.IN_PROGRESS)
             return;
 
+        // Search computer's replies while the human is thinking.
+        if (!wcpu && !bcpu) {
+            boolean wnext = turn == 1 && this.white().type == Player.Type.COMPUTER;
+            boolean bnext = turn == -1 && this.black().type == Player.Type.COMPUTER;
+
+            if ((wnext || bnext) && !this.movable().isEmpty())
+                this.computer.ponder(game.getPoints(), turn, game.getDice());
+            return;
+        }
+
          if (this.movable().isEmpty()) {
              System.out.println("NO MOVES!");
              // Give away the turn if there's no move to make.
              game.next();
+             this.publish();
          } else {
              // Start the calculation of moves otherwise.
              System.out.println("Calculating moves!");
-             this.computer.getMoves(Game.clonePoints(game.getPoints()), turn, game.getDice());
+             long decision = ++this.decision;
+             this.computer.getMoves(game.getPoints(), turn, game.getDice(),
+                             progress -> SwingUtilities.invokeLater(() -> this.onProgress(decision, progress)))
+                     .thenAccept(play -> SwingUtilities.invokeLater(() -> this.onMoves(play)))
+                     .exceptionally(e -> {
+                         if (!(e.getCause() instanceof CancellationException))
+                             System.out.println("ERROR: " + e.getMessage());
+                         return null;
+                     });
          }
     }
 
+    /**
+     * Takes a snapshot of the game after it has changed and hands it to the board.
+     */
+    private void publish() {
+        this.snapshot = new BoardSnapshot(this.model.getGame());
+        this.board.show(this.snapshot);
+    }
+
     /**
      * Recreates the window to present the current view.
      */
@@ -208,13 +212,21 @@ class Controller extends JFrame
      * Starts a new game.
      */
     public void onStart() {
+        this.computer.cancel();
+        this.board.stopAnimation();
+        this.board.showHints(null);
         this.model.startGame();
+        this.publish();
         this.render(this.board);
 
         this.tick();
     }
 
     public void onStop() {
+        this.computer.cancel();
+        this.board.stopAnimation();
+        this.board.showHints(null);
+        this.computer.stopPondering();
         this.render(this.settings);
     }
 
@@ -234,7 +246,7 @@ class Controller extends JFrame
 
         if (event.getSource() == this.board) {
             game.move(event.start, event.end);
-            this.repaint();
+            this.publish();
 
             // Check if the next move is computer move.
             this.tick();
@@ -247,8 +259,7 @@ class Controller extends JFrame
             if (this.movable().isEmpty()) {
                 Game game = this.model.getGame();
                 game.next();
-
-                this.repaint();
+                this.publish();
 
                 // Check if computer goes next.
                 this.tick();
@@ -256,9 +267,53 @@ class Controller extends JFrame
         }
     }
 
-    @Override
-    public void onMoves(int[] points, Computer.Move move) {
-        this.board.animate(move.start, move.end);
+    /**
+     * Triggered on the event thread while the computer is looking for its move.
+     */
+    private void onProgress(long decision, Progress progress) {
+        if (decision != this.decision || !this.menuItemHints.isSelected())
+            return;
+
+        ArrayList<BoardView.Hint> hints = new ArrayList<>();
+        for (Progress.Candidate candidate : progress.candidates) {
+            ArrayList<int[]> moves = new ArrayList<>();
+            StringBuilder label = new StringBuilder();
+
+            for (Computer.Move move : candidate.moves) {
+                moves.add(new int[]{move.start, move.end});
+                if (label.length() > 0)
+                    label.append(' ');
+                label.append(move);
+            }
+
+            hints.add(new BoardView.Hint(moves, label.toString(), candidate.share, candidate.win));
+        }
+
+        this.board.showHints(hints);
+    }
+
+    /**
+     * Triggered on the event thread when the computer finds its move.
+     */
+    private void onMoves(Play play) {
+        // Drop the moves for positions that have changed in the meantime.
+        if (!this.computer.isCurrent(play))
+            return;
+
+        this.decision++;
+        this.board.showHints(null);
+
+        if (play.moves.isEmpty()) {
+            System.out.println("Prazna poteza v Controller.onMoves");
+            return;
+        }
+
+        // Animate the whole play at once.
+        ArrayList<int[]> moves = new ArrayList<>();
+        for (Computer.Move move : play.moves) {
+            moves.add(new int[]{move.start, move.end});
+        }
+        this.board.animate(moves);
     }
 
     @Override
@@ -266,21 +321,36 @@ class Controller extends JFrame
         // Perform the move in the model as well.
         Game game = this.model.getGame();
         game.move(start, end);
-        this.repaint();
+        this.publish();
+    }
 
+    @Override
+    public void onMovesAnimated() {
         // Check if the next move is also computer move.
         this.tick();
     }
 
     @Override
     public void actionPerformed(ActionEvent e) {
+        // Hints only change what the board shows.
+        if (e.getSource() == this.menuItemHints) {
+            if (!this.menuItemHints.isSelected())
+                this.board.showHints(null);
+            return;
+        }
+
         if (e.getSource() == this.menuItemStartGame) {
             this.onStop();
+            return;
         }
 
         if (e.getSource() == this.menuItemUndo) {
+            this.computer.cancel();
+            this.board.stopAnimation();
+            this.board.showHints(null);
             Game game = this.model.getGame();
             game.undo();
+            this.publish();
         }
 
         this.repaint();
@@ -0,0 +1,298 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import intelligence.Computer;
+import intelligence.Limits;
+import intelligence.Play;
+import intelligence.Progress;
+import intelligence.Settings;
+import model.Game;
+import model.Position;
+
+/**
+ * Runs the computer as an external engine that talks a line based protocol over
+ * standard input and output. The engine keeps running between commands, so its
+ * caches stay warm.
+ * <p>
+ * Commands:
+ * <ul>
+ * <li>new - sets up the starting position with white on turn and no dice.</li>
+ * <li>position line - sets the position, written as described in Position.parse.</li>
+ * <li>dice 31 - sets the dice of the player on turn.</li>
+ * <li>roll - rolls the dice and answers with "dice 31".</li>
+ * <li>move 13/10 - makes a move in the current position. "move none" gives away
+ * the turn when there is no move to make.</li>
+ * <li>go [nodes n] [time ms] [infinite] - searches the current position in the
+ * background, prints "info ..." lines while it's at it and "bestmove ..." when
+ * it's done.</li>
+ * <li>stop - makes the search answer with the best play it has found so far.</li>
+ * <li>show - prints the current position.</li>
+ * <li>isready - answers with "readyok" once the engine can take commands.</li>
+ * <li>quit - stops the engine.</li>
+ * </ul>
+ * Lines that the engine doesn't understand are answered with "error message".
+ */
+public class Engine {
+
+    private static final String START = "0,2,0,0,0,0,-5,0,-3,0,0,0,5,-5,0,0,0,3,0,5,0,0,0,0,-2,0 w 00";
+
+    // MARK: - State
+
+    private final PrintStream output;
+    private final Computer computer;
+
+    /**
+     * Runs one search at a time.
+     */
+    private final ExecutorService searcher;
+    private final Random random;
+
+    private int[] points;
+    private int turn;
+    private ArrayList<Integer> dice;
+
+    /**
+     * Limits of the running search, so that we can stop it.
+     */
+    private Limits limits;
+    private Future<?> search;
+
+    // MARK: - Constructor
+
+    private Engine(PrintStream output) {
+        this.output = output;
+        this.computer = new Computer();
+        this.searcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.random = new Random();
+        this.reset();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Engine engine = new Engine(System.out);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty())
+                    continue;
+                if (line.equals("quit"))
+                    break;
+
+                // A bad command must never end the session.
+                try {
+                    engine.handle(line);
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    engine.print("error " + e.getMessage());
+                } catch (RuntimeException e) {
+                    engine.print("error " + e);
+                }
+            }
+        }
+
+        engine.stop();
+    }
+
+    // MARK: - Commands
+
+    private void handle(String line) {
+        String[] parts = line.split("\\s+", 2);
+        String argument = parts.length > 1 ? parts[1] : "";
+
+        switch (parts[0]) {
+            case "new":
+                this.ensureIdle();
+                this.reset();
+                break;
+            case "position":
+                this.ensureIdle();
+                this.set(Position.parse(argument));
+                break;
+            case "dice":
+                this.ensureIdle();
+                this.dice = Position.parseDice(argument);
+                break;
+            case "roll":
+                this.ensureIdle();
+                this.dice = Position.parseDice("" + (this.random.nextInt(6) + 1) + (this.random.nextInt(6) + 1));
+                this.print("dice " + this.dice.get(0) + this.dice.get(1));
+                break;
+            case "move":
+                this.ensureIdle();
+                this.move(argument);
+                break;
+            case "go":
+                this.ensureIdle();
+                this.go(argument);
+                break;
+            case "stop":
+                this.stop();
+                break;
+            case "show":
+                Position position = new Position(this.points, this.turn, this.dice);
+                this.print("position " + position + " id " + position.id());
+                break;
+            case "isready":
+                this.print("readyok");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command: " + parts[0]);
+        }
+    }
+
+    private void reset() {
+        this.set(Position.parse(START));
+    }
+
+    private void set(Position position) {
+        this.points = Game.clonePoints(position.points);
+        this.turn = position.turn;
+        this.dice = new ArrayList<>(position.dice);
+    }
+
+    /**
+     * Makes a move written as "start/end" and passes the turn once the dice are used
+     * up, or "none" to pass the turn when no move is possible.
+     */
+    private void move(String text) {
+        boolean stuck = Arrays.stream(Game.getMovableCheckers(this.points, this.turn, this.dice)).sum() == 0;
+        if (text.equals("none")) {
+            if (!stuck)
+                throw new IllegalArgumentException("There is a move to make.");
+
+            this.dice = new ArrayList<>();
+            this.turn *= -1;
+            return;
+        }
+
+        String[] parts = text.split("/");
+        if (parts.length != 2)
+            throw new IllegalArgumentException("Expected start/end: " + text);
+
+        int start = Integer.parseInt(parts[0].trim());
+        int end = Integer.parseInt(parts[1].trim());
+
+        if (start < 0 || start > 25 || !Game.getMoves(this.points, this.turn, this.dice, start).contains(end))
+            throw new IllegalArgumentException("Illegal move: " + text);
+
+        this.points = Game.move(this.points, start, end);
+        this.dice = Game.useDie(this.dice, start, end);
+
+        // The other player rolls next.
+        if (this.dice.isEmpty())
+            this.turn *= -1;
+    }
+
+    /**
+     * Starts a search of the current position with limits written as "nodes n",
+     * "time ms" or "infinite".
+     */
+    private void go(String text) {
+        if (this.dice.isEmpty())
+            throw new IllegalStateException("Roll the dice first.");
+
+        int nodes = Integer.MAX_VALUE;
+        long time = 0;
+        boolean infinite = false;
+
+        String[] parts = text.isEmpty() ? new String[0] : text.split("\\s+");
+        for (int i = 0; i < parts.length; i++) {
+            switch (parts[i]) {
+                case "nodes":
+                    nodes = Integer.parseInt(value(parts, ++i, "nodes"));
+                    break;
+                case "time":
+                    time = Long.parseLong(value(parts, ++i, "time"));
+                    break;
+                case "infinite":
+                    infinite = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown limit: " + parts[i]);
+            }
+        }
+
+        // Without any limit we search as much as a normal decision would.
+        if (!infinite && nodes == Integer.MAX_VALUE && time == 0)
+            nodes = Settings.DEFAULT.iterations;
+
+        Limits limits = new Limits(nodes, time);
+        int[] points = this.points;
+        int turn = this.turn;
+        ArrayList<Integer> dice = this.dice;
+
+        this.limits = limits;
+        this.search = this.searcher.submit(() -> {
+            try {
+                Play play = this.computer.decide(points, turn, dice, limits, this::info);
+                this.print(String.format(Locale.ROOT, "bestmove %s win %.4f visits %d nodes %d",
+                        moves(play.moves), play.win, play.visits, play.stats.iterations));
+            } catch (RuntimeException e) {
+                this.print("error " + e);
+            }
+        });
+    }
+
+    /**
+     * Returns the value of a limit.
+     */
+    private static String value(String[] parts, int index, String limit) {
+        if (index >= parts.length)
+            throw new IllegalArgumentException("Missing value for " + limit);
+        return parts[index];
+    }
+
+    private void stop() {
+        if (this.limits != null)
+            this.limits.stop();
+    }
+
+    /**
+     * Makes sure that no search is running, since they would see the position
+     * change under their feet.
+     */
+    private void ensureIdle() {
+        if (this.search != null && !this.search.isDone())
+            throw new IllegalStateException("Searching, send stop first.");
+    }
+
+    // MARK: - Output
+
+    private void info(Progress progress) {
+        this.print(String.format(Locale.ROOT, "info nodes %d time %d nps %d win %.4f visits %d pv %s",
+                progress.iterations, progress.time / 1_000_000,
+                (long) (progress.iterations / Math.max(1e-9, progress.time / 1e9)), progress.win, progress.visits,
+                moves(progress.moves)));
+    }
+
+    private static String moves(ArrayList<Computer.Move> moves) {
+        if (moves.isEmpty())
+            return "none";
+
+        StringBuilder text = new StringBuilder();
+        for (Computer.Move move : moves) {
+            if (text.length() > 0)
+                text.append(' ');
+            text.append(move);
+        }
+        return text.toString();
+    }
+
+    private synchronized void print(String line) {
+        this.output.println(line);
+        this.output.flush();
+    }
+}
@@ -0,0 +1,302 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import intelligence.Computer;
+import intelligence.Play;
+import intelligence.Settings;
+import model.Game;
+
+/**
+ * Command line tool that plays engine setups against a baseline and tells which
+ * one is stronger and at what cost.
+ * <p>
+ * Usage: java Gauntlet [--threads n] [--elo0 e] [--elo1 e] [--pairs n] [--seed s]
+ * baseline challenger...
+ * <p>
+ * Setups are written as described in Settings.parse. Games are played in pairs
+ * with the same dice and swapped colors, on all cores, until a sequential
+ * probability ratio test accepts either that the challenger is no better than
+ * elo0 or that it is at least elo1 stronger.
+ */
+public class Gauntlet {
+
+    /**
+     * Error rates of the sequential test.
+     */
+    private static final double ALPHA = 0.05;
+    private static final double BETA = 0.05;
+
+    /**
+     * z-score of the 95% confidence interval.
+     */
+    private static final double Z = 1.96;
+
+    /**
+     * Games that take longer than this are stopped and count as a draw.
+     */
+    private static final int MAX_MOVES = 2000;
+
+    /**
+     * The sequential test doesn't stop before this many pairs, so a lucky start
+     * with a tiny variance can't decide it.
+     */
+    private static final int MIN_PAIRS = 20;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        double elo0 = 0;
+        double elo1 = 20;
+        int pairs = 10000;
+        long seed = new Random().nextLong();
+        ArrayList<Settings> setups = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--elo0":
+                    elo0 = Double.parseDouble(args[++i]);
+                    break;
+                case "--elo1":
+                    elo1 = Double.parseDouble(args[++i]);
+                    break;
+                case "--pairs":
+                    pairs = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    setups.add(Settings.parse(args[i]));
+            }
+        }
+
+        if (setups.size() < 2) {
+            System.out.println("Usage: java Gauntlet [--threads n] [--elo0 e] [--elo1 e] [--pairs n] [--seed s] "
+                    + "baseline challenger...");
+            return;
+        }
+
+        Settings baseline = setups.get(0);
+        for (Settings challenger : setups.subList(1, setups.size())) {
+            Tally tally = new Tally(elo0, elo1);
+            run(baseline, challenger, tally, threads, pairs, seed);
+
+            System.out.println("baseline:   " + baseline);
+            System.out.println("challenger: " + challenger);
+            System.out.println(tally);
+            System.out.println();
+        }
+    }
+
+    /**
+     * Plays pairs of games between the engines on the given number of threads until
+     * the test decides or we run out of pairs.
+     */
+    private static void run(Settings baseline, Settings challenger, Tally tally, int threads, int pairs, long seed)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Computer[] engines = {new Computer(pool, baseline), new Computer(pool, challenger)};
+        AtomicInteger next = new AtomicInteger();
+
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                while (!tally.isDecided()) {
+                    int pair = next.getAndIncrement();
+                    if (pair >= pairs)
+                        return;
+
+                    // Both games of a pair get the same dice.
+                    double first = score(play(engines, 1, seed + pair, tally));
+                    double second = 1 - score(play(engines, 0, seed + pair, tally));
+                    tally.add(first, second);
+                }
+            });
+        }
+
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Plays a game where the engine with the given index plays white and returns the
+     * direction of the winner, or 0 if the game didn't finish.
+     */
+    private static int play(Computer[] engines, int white, long seed, Tally tally) {
+        Game game = new Game(new Random(seed));
+
+        for (int moves = 0; game.getState() == Game.State.IN_PROGRESS && moves < MAX_MOVES; moves++) {
+            int turn = game.getTurn();
+
+            // Give away the turn if there's no move to make.
+            if (Arrays.stream(game.getMovableCheckers()).sum() == 0) {
+                game.next();
+                continue;
+            }
+
+            int engine = turn == -1 ? white : 1 - white;
+
+            long cpu = THREADS.getCurrentThreadCpuTime();
+            Play play = engines[engine].decide(game.getPoints(), turn, game.getDice());
+            tally.spent(engine, THREADS.getCurrentThreadCpuTime() - cpu);
+
+            if (play.moves.isEmpty())
+                break;
+
+            for (Computer.Move move : play.moves) {
+                game.move(move.start, move.end);
+            }
+        }
+
+        if (game.getState() == Game.State.WIN_WHITE)
+            return -1;
+        if (game.getState() == Game.State.WIN_BLACK)
+            return 1;
+        return 0;
+    }
+
+    /**
+     * Returns the challenger's score of a game where the challenger played white.
+     */
+    private static double score(int winner) {
+        return (1 - winner) / 2.0;
+    }
+
+    // MARK: - Tally
+
+    /**
+     * Results of the games between a baseline and a challenger.
+     */
+    private static class Tally {
+        private final double s0;
+        private final double s1;
+
+        /**
+         * Number of pairs and the sum and the sum of squares of their scores, where a
+         * pair scores 0, 0.5 or 1 for the challenger.
+         */
+        private int pairs;
+        private double sum;
+        private double squares;
+
+        /**
+         * CPU time spent by each engine and the number of its decisions.
+         */
+        private final long[] cpu = new long[2];
+        private final long[] moves = new long[2];
+
+        private boolean decided;
+
+        Tally(double elo0, double elo1) {
+            this.s0 = expected(elo0);
+            this.s1 = expected(elo1);
+        }
+
+        synchronized void spent(int engine, long nanos) {
+            this.cpu[engine] += nanos;
+            this.moves[engine]++;
+        }
+
+        synchronized void add(double first, double second) {
+            double score = (first + second) / 2;
+            this.pairs++;
+            this.sum += score;
+            this.squares += score * score;
+
+            double llr = this.llr();
+            if (this.pairs >= MIN_PAIRS && (llr <= lower() || llr >= upper()))
+                this.decided = true;
+
+            if (this.pairs % 10 == 0)
+                System.out.println(this.summary());
+        }
+
+        synchronized boolean isDecided() {
+            return this.decided;
+        }
+
+        private double mean() {
+            return this.pairs == 0 ? 0.5 : this.sum / this.pairs;
+        }
+
+        private double variance() {
+            if (this.pairs < 2)
+                return 0.25;
+
+            double mean = this.mean();
+            return Math.max(1e-3, (this.squares - this.pairs * mean * mean) / (this.pairs - 1));
+        }
+
+        /**
+         * Log-likelihood ratio of the hypotheses in the normal approximation of the
+         * generalized sequential probability ratio test.
+         */
+        private double llr() {
+            return this.pairs * (this.s1 - this.s0) * (2 * this.mean() - this.s0 - this.s1) / (2 * this.variance());
+        }
+
+        private static double lower() {
+            return Math.log(BETA / (1 - ALPHA));
+        }
+
+        private static double upper() {
+            return Math.log((1 - BETA) / ALPHA);
+        }
+
+        private static double expected(double elo) {
+            return 1 / (1 + Math.pow(10, -elo / 400));
+        }
+
+        private static double elo(double score) {
+            score = Math.min(Math.max(score, 1e-4), 1 - 1e-4);
+            return -400 * Math.log10(1 / score - 1);
+        }
+
+        /**
+         * CPU time per decision in seconds.
+         */
+        private double cpu(int engine) {
+            return this.moves[engine] == 0 ? 0 : this.cpu[engine] / 1e9 / this.moves[engine];
+        }
+
+        private synchronized String summary() {
+            double spread = Z * Math.sqrt(this.variance() / Math.max(1, this.pairs));
+
+            return String.format(Locale.ROOT, "pairs %d, score %.4f, elo %+.1f [%+.1f, %+.1f], llr %.2f [%.2f, %.2f]",
+                    this.pairs, this.mean(), elo(this.mean()), elo(this.mean() - spread), elo(this.mean() + spread),
+                    this.llr(), lower(), upper());
+        }
+
+        @Override
+        public synchronized String toString() {
+            String verdict = "undecided";
+            if (this.llr() >= upper())
+                verdict = "challenger is stronger";
+            if (this.llr() <= lower())
+                verdict = "challenger is not stronger";
+
+            double baseline = this.cpu(0);
+            double challenger = this.cpu(1);
+            double elo = elo(this.mean());
+
+            String strength = "n/a";
+            if (Math.abs(challenger - baseline) > 1e-3)
+                strength = String.format(Locale.ROOT, "%+.1f", elo / (challenger - baseline));
+
+            return String.format(Locale.ROOT,
+                    "%s -> %s%ncpu per move: baseline %.1f ms, challenger %.1f ms%nelo per extra cpu-second per move: %s",
+                    this.summary(), verdict, 1000 * baseline, 1000 * challenger, strength);
+        }
+    }
+}
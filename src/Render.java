@@ -0,0 +1,212 @@
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.file.Files;
+import java.util.EventObject;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import model.Model;
+import model.Player;
+import model.Position;
+import view.BoardSnapshot;
+import view.BoardView;
+
+/**
+ * Command line tool that draws positions as PNG images without a display. It
+ * reads one position per line from a file or standard input, draws each with the
+ * same code as the game window and prints a JSON line for every written image.
+ * <p>
+ * Usage: java -Djava.awt.headless=true Render [--threads n] [--size WxH] [--out dir] [file]
+ * <p>
+ * Lines are written as described in Position.parse. Empty lines and lines
+ * starting with # are skipped. Images are named after the line they come from.
+ */
+public class Render {
+
+    /**
+     * PNG compression quality, where higher values compress faster and less.
+     */
+    private static final float COMPRESSION_QUALITY = 0.8f;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int width = 990;
+        int height = 780;
+        File directory = new File(".");
+        String file = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--size") && i + 1 < args.length) {
+                String[] size = args[++i].split("x");
+                width = Integer.parseInt(size[0]);
+                height = Integer.parseInt(size[1]);
+            } else if (args[i].equals("--out") && i + 1 < args.length) {
+                directory = new File(args[++i]);
+            } else if (!args[i].equals("-")) {
+                file = args[i];
+            }
+        }
+
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Can't create " + directory);
+
+        Reader input = file == null ? new InputStreamReader(System.in) : new FileReader(file);
+        PrintStream output = System.out;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Views keep their board layer and layout, so every thread reuses its own.
+        Model model = new Model();
+        ThreadLocal<BoardView> views = ThreadLocal.withInitial(() -> new BoardView(new Diagram(model)));
+
+        // Don't read much further than we can draw.
+        Semaphore pending = new Semaphore(2 * threads);
+        AtomicInteger rendered = new AtomicInteger();
+        long start = System.nanoTime();
+
+        try (BufferedReader reader = new BufferedReader(input)) {
+            String line;
+            int number = 0;
+
+            while ((line = reader.readLine()) != null) {
+                number++;
+
+                if (line.isBlank() || line.startsWith("#"))
+                    continue;
+
+                Position position;
+                try {
+                    position = Position.parse(line);
+                } catch (IllegalArgumentException e) {
+                    print(output, error(number, e.getMessage()));
+                    continue;
+                }
+
+                int index = number;
+                int w = width;
+                int h = height;
+                File image = new File(directory, index + ".png");
+
+                pending.acquire();
+                executor.execute(() -> {
+                    try {
+                        BoardSnapshot snapshot = new BoardSnapshot(position.points, position.turn, position.dice);
+                        BufferedImage picture = views.get().render(snapshot, w, h);
+                        write(picture, image);
+
+                        rendered.incrementAndGet();
+                        print(output, result(index, position, image));
+                    } catch (IOException | RuntimeException e) {
+                        print(output, error(index, String.valueOf(e)));
+                    } finally {
+                        pending.release();
+                    }
+                });
+            }
+        }
+
+        // Wait for the remaining positions.
+        pending.acquire(2 * threads);
+        executor.shutdown();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf(Locale.ROOT, "%d images in %.1f s, %.1f images/s%n", rendered.get(), seconds,
+                rendered.get() / seconds);
+    }
+
+    /**
+     * Writes an image as PNG. We trade some size for a faster, lighter compression
+     * as encoding takes far longer than drawing.
+     */
+    private static void write(BufferedImage picture, File file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        ImageWriteParam parameters = writer.getDefaultWriteParam();
+        parameters.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        parameters.setCompressionQuality(COMPRESSION_QUALITY);
+
+        // Image streams don't truncate the files they write to.
+        Files.deleteIfExists(file.toPath());
+
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(picture, null, null), parameters);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static synchronized void print(PrintStream output, String line) {
+        output.println(line);
+        output.flush();
+    }
+
+    // MARK: - Diagram
+
+    /**
+     * Delegate of a board that is only drawn. It has the default players and
+     * ignores events.
+     */
+    private static class Diagram implements BoardView.Delegate {
+        private final Model model;
+
+        Diagram(Model model) {
+            this.model = model;
+        }
+
+        @Override
+        public Set<Integer> draggable(int start) {
+            return Set.of();
+        }
+
+        @Override
+        public void onDragged(BoardView.DraggedEvent event) {
+        }
+
+        @Override
+        public void onClick(EventObject event) {
+        }
+
+        @Override
+        public Player white() {
+            return this.model.white;
+        }
+
+        @Override
+        public Player black() {
+            return this.model.black;
+        }
+
+        @Override
+        public void onAnimationComplete(int start, int end) {
+        }
+
+        @Override
+        public void onMovesAnimated() {
+        }
+    }
+
+    // MARK: - JSON
+
+    private static String result(int line, Position position, File image) {
+        return String.format(Locale.ROOT, "{\"line\":%d,\"id\":\"%s\",\"file\":\"%s\"}", line, position.id(),
+                escape(image.getPath()));
+    }
+
+    private static String error(int line, String message) {
+        return String.format(Locale.ROOT, "{\"line\":%d,\"error\":\"%s\"}", line, escape(message));
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
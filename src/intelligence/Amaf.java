@@ -0,0 +1,80 @@
+package intelligence;
+
+import java.util.List;
+
+/**
+ * All-moves-as-first statistics of a search tree. Every checker move that a
+ * player makes anywhere in a game updates the same estimate of how good that
+ * move is, so a node gets a useful value long before it has been visited often.
+ */
+class Amaf {
+
+    /**
+     * Moves are indexed by the player, the starting and the ending point.
+     */
+    private static final int SIZE = 2 * 26 * 26;
+
+    // MARK: - State
+
+    private final int[] wins;
+    private final int[] all;
+
+    /**
+     * Moves already counted in the current game, so each counts only the first
+     * time it is played.
+     */
+    private final boolean[] seen;
+
+    // MARK: - Constructor
+
+    Amaf() {
+        this.wins = new int[SIZE];
+        this.all = new int[SIZE];
+        this.seen = new boolean[SIZE];
+    }
+
+    private static int index(int direction, Computer.Move move) {
+        return ((1 + direction) / 2 * 26 + move.start) * 26 + move.end;
+    }
+
+    // MARK: - Methods
+
+    /**
+     * Records the moves a player made in a game and whether the player won.
+     */
+    void update(int direction, List<Computer.Move> moves, boolean won) {
+        for (Computer.Move move : moves) {
+            int i = index(direction, move);
+            if (this.seen[i])
+                continue;
+
+            this.seen[i] = true;
+            this.all[i]++;
+            if (won)
+                this.wins[i]++;
+        }
+
+        for (Computer.Move move : moves) {
+            this.seen[index(direction, move)] = false;
+        }
+    }
+
+    /**
+     * Returns the average win rate of the given moves, or -1 if none of them has
+     * been played yet.
+     */
+    double value(int direction, List<Computer.Move> moves) {
+        int wins = 0;
+        int all = 0;
+
+        for (Computer.Move move : moves) {
+            int i = index(direction, move);
+            wins += this.wins[i];
+            all += this.all[i];
+        }
+
+        if (all == 0)
+            return -1;
+        return (double) wins / all;
+    }
+}
@@ -1,183 +1,646 @@
 package intelligence;
 
+import java.lang.reflect.Method;
 import java.util.*;
-
-import javax.swing.SwingWorker;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import model.Game;
+import model.PositionId;
 
 public class Computer {
 
     /**
-     * How many searches down the game tree should Computer make, with every tenth
-     * being preSearch which expands one Node.
+     * How many times a leaf has to be visited before we expand it.
      */
-    private static final int ITER = 10000;
+    static final int EXPAND_VISITS = 8;
 
-    // MARK: - Delegate
+    /**
+     * Progressive widening lets a node with n visits have WIDENING * n^WIDENING_EXPONENT
+     * children, so the tree only grows where the search keeps coming back.
+     */
+    static final double WIDENING = 1;
+    static final double WIDENING_EXPONENT = 0.5;
 
-    public interface Delegate {
-        /**
-         * Triggered when computation finishes.
-         */
-        void onMoves(int[] points, Move moves);
-    }
+    /**
+     * How many of the best candidates by prior a node keeps around for widening.
+     */
+    static final int CANDIDATES = 32;
+
+    /**
+     * At most this many games from the evaluation cache are counted as if a root
+     * move had been searched that often, so fresh searches can still overrule them.
+     */
+    static final int PRIOR_VISITS = 50;
+
+    /**
+     * Root moves with fewer new games than this aren't written to the cache.
+     */
+    static final int STORE_VISITS = 50;
+
+    /**
+     * Iterations between two checks of the limits.
+     */
+    static final int CHUNK = 256;
+
+    /**
+     * Milliseconds between two progress reports.
+     */
+    static final long PROGRESS_INTERVAL = 250;
+
+    /**
+     * A search stops early once the Wilson interval of the most visited play at
+     * this z lies above the interval of the runner-up.
+     */
+    static final double SEPARATION = 3;
 
     // MARK: - State
 
-    private static Random r;
-    private Node tree;
-    private final Delegate delegate;
+    /**
+     * Executor that runs the searches.
+     */
+    private final Executor executor;
+
+    /**
+     * How the computer searches.
+     */
+    private final Settings settings;
+
+    /**
+     * Increases with every requested decision. Results of older requests are stale.
+     */
+    private final AtomicLong generation;
+
+    /**
+     * Requests up to this generation have been cancelled and won't be searched.
+     */
+    private volatile long cancelled;
+
+    /**
+     * Searches positions in the background while the human is on the move.
+     */
+    private final Ponderer ponderer;
+
+    /**
+     * Statistics of all decisions that we expose over JMX.
+     */
+    private final EngineStats stats;
+
+    /**
+     * Evaluations of earlier searches, or null if we don't keep them.
+     */
+    private final EvaluationCache cache;
 
     // MARK: - Constructor
 
-    public Computer(Delegate delegate) {
-        r = new Random();
-        this.delegate = delegate;
+    public Computer() {
+        this(defaultExecutor(), Settings.DEFAULT, EvaluationCache.shared());
+    }
+
+    public Computer(Executor executor) {
+        this(executor, Settings.DEFAULT, EvaluationCache.shared());
+    }
+
+    /**
+     * Creates a computer that doesn't use the evaluation cache, so its strength
+     * depends only on the settings.
+     */
+    public Computer(Executor executor, Settings settings) {
+        this(executor, settings, null);
+    }
+
+    public Computer(Executor executor, Settings settings, EvaluationCache cache) {
+        this.executor = executor;
+        this.settings = settings;
+        this.generation = new AtomicLong();
+        this.ponderer = new Ponderer(settings);
+        this.stats = EngineStats.shared();
+        this.cache = cache;
+    }
+
+    /**
+     * Returns an executor that runs every search on its own virtual thread when the
+     * JVM supports them and on a daemon thread otherwise. The JVM can't tell how
+     * much a virtual thread allocates, so setting the backgammon.allocations system
+     * property picks daemon threads to have allocations measured.
+     */
+    public static Executor defaultExecutor() {
+        if (Boolean.getBoolean("backgammon.allocations"))
+            return platformExecutor();
+
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return platformExecutor();
+        }
+    }
+
+    private static Executor platformExecutor() {
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "computer");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     // MARK: - Accessors
 
     /**
-     * Starts a computation of a move and returns the result to delegate.
+     * Starts a computation of a move. The returned future completes on the engine's
+     * executor, so many decisions may be computed at once. Requests that were
+     * cancelled before they started complete with a CancellationException.
+     */
+    public CompletableFuture<Play> getMoves(int[] _points, int direction, ArrayList<Integer> dice) {
+        return this.getMoves(_points, direction, dice, null);
+    }
+
+    /**
+     * Starts a computation of a move like getMoves does. The listener, if any, hears
+     * about the progress of the search every PROGRESS_INTERVAL on the engine's
+     * thread.
      */
-    public void getMoves(int[] _points, int direction, ArrayList<Integer> dice) {
-        // Save local values.
-        this.tree = new Node(new ArrayList<Move>());
-        Delegate delegate = this.delegate;
+    public CompletableFuture<Play> getMoves(int[] _points, int direction, ArrayList<Integer> dice,
+                                            Consumer<Progress> listener) {
+        long generation = this.generation.incrementAndGet();
 
         int[] points = Game.clonePoints(_points);
+        ArrayList<Integer> rdice = new ArrayList<>(dice);
 
-        // Create a worker to carry out the computation.
-        SwingWorker<ArrayList<Move>, Void> worker = new SwingWorker<>() {
-            @Override
-            protected ArrayList<Move> doInBackground() {
-                ArrayList<ArrayList<Move>> allMoves = allMovesFromDice(points, direction, dice);
-                System.out.print("AllMoves from dice: ");
-                System.out.println(allMoves.size());
-                for (ArrayList<Move> moves : allMoves) {
-                    tree.addChild(new Node(moves));
-                }
+        // Pick up the tree that we might have searched while the opponent was moving.
+        Ponderer.Entry pondered = this.ponderer.take(points, direction, rdice);
 
-                int k = ITER;
-                while (k > 0) {
-                    tree.preSearch(points, -1 * direction, k % 100 == 0);
-                    k--;
-                }
+        return CompletableFuture.supplyAsync(() -> {
+            if (generation <= this.cancelled)
+                throw new CancellationException("Stale request.");
+
+            Limits limits = new Limits(this.settings.iterations, 0);
+            return this.decide(points, direction, rdice, pondered, generation, limits, listener);
+        }, this.executor);
+    }
+
+    /**
+     * Computes a move on the calling thread.
+     */
+    public Play decide(int[] points, int direction, ArrayList<Integer> dice) {
+        return this.decide(Game.clonePoints(points), direction, new ArrayList<>(dice), null, 0);
+    }
+
+    /**
+     * Computes a move on the calling thread within the given limits. The listener,
+     * if any, hears about the progress of the search every PROGRESS_INTERVAL.
+     */
+    public Play decide(int[] points, int direction, ArrayList<Integer> dice, Limits limits,
+                       Consumer<Progress> listener) {
+        return this.decide(Game.clonePoints(points), direction, new ArrayList<>(dice), null, 0, limits, listener);
+    }
+
+    private Play decide(int[] points, int direction, ArrayList<Integer> dice, Ponderer.Entry pondered,
+                        long generation) {
+        Limits limits = new Limits(this.settings.iterations, 0);
+        return this.decide(points, direction, dice, pondered, generation, limits, null);
+    }
+
+    private Play decide(int[] points, int direction, ArrayList<Integer> dice, Ponderer.Entry pondered,
+                        long generation, Limits limits, Consumer<Progress> listener) {
+        long allocated = SearchStats.allocatedBytes();
+        long start = System.nanoTime();
+
+        Node tree;
+        int done = 0;
+        int[] seeds = null;
+
+        if (pondered != null) {
+            tree = pondered.tree;
+            done = pondered.iterations;
+        } else {
+            tree = root(points, direction, dice);
+            seeds = this.warm(tree, points, direction, dice);
+        }
+
+        long generated = System.nanoTime();
+        int rollouts = tree.getAll();
+
+        // A forced play needs no search at all, unless we were asked to search until stopped.
+        boolean forced = limits.isBounded() && tree.getChildren().size() <= 1;
+        boolean decided = false;
+
+        // A decision we have searched thoroughly before doesn't need another search.
+        EvaluationCache.Entry answer = pondered == null && !forced ? this.answer(points, direction, dice, limits) : null;
+        Node known = answer == null ? null : child(tree, points, answer.play);
+
+        int iteration = done;
+        long deadline = limits.time > 0 ? start + limits.time * 1_000_000 : Long.MAX_VALUE;
+        long reported = generated;
+
+        while (known == null && !forced && iteration < limits.iterations && !limits.isStopped()) {
+            int to = (int) Math.min(limits.iterations, (long) iteration + CHUNK);
+            search(tree, this.settings, points, direction, iteration, to);
+            iteration = to;
+
+            long now = System.nanoTime();
+            if (now >= deadline)
+                break;
 
-                return tree.mostVisited().getMoves();
+            if (listener != null && now - reported >= PROGRESS_INTERVAL * 1_000_000) {
+                listener.accept(progress(tree, iteration - done, now - generated));
+                reported = now;
             }
 
-            @Override
-            protected void done() {
-                ArrayList<Move> moves = new ArrayList<>();
+            if (limits.isBounded() && decided(tree, limits.iterations - iteration)) {
+                decided = true;
+                break;
+            }
+        }
 
-                try {
-                    moves = get();
-                } catch (Exception e) {
-                    System.out.println("ERROR: " + e.getMessage());
-                }
+        long searched = System.nanoTime();
+        rollouts = tree.getAll() - rollouts;
 
-                if (!moves.isEmpty()) {
-                    delegate.onMoves(points, moves.get(0));
-                } else {
-                    System.out.println("Prazna poteza v intelligence.Computer:84");
-                }
+        Node best = known != null ? known : tree.mostVisited();
+        long selected = System.nanoTime();
+
+        if (allocated >= 0)
+            allocated = SearchStats.allocatedBytes() - allocated;
+
+        int iterations = Math.max(0, iteration - done);
+        SearchStats stats = new SearchStats(tree, iterations, done, rollouts, generated - start,
+                searched - generated, selected - searched, allocated);
+        this.stats.record(stats);
+
+        if (known != null) {
+            // Report all the games the cache has seen after the move.
+            byte[] key = this.cacheKey(known, points, direction, dice);
+            EvaluationCache.Entry entry = key == null ? null : this.cache.get(key);
+            if (entry != null) {
+                int wins = (int) Math.round(entry.win * entry.visits);
+                return new Play(points, best.getMoves(), wins, entry.visits, stats, generation);
             }
-        };
+            return new Play(points, best.getMoves(), best.getWins(), best.getAll(), stats, generation);
+        }
+
+        if (!forced)
+            this.remember(tree, seeds, best, points, direction, dice, decided ? limits.iterations : 0);
 
-        // Start executing.
-        worker.execute();
+        return new Play(points, best.getMoves(), best.getWins(), best.getAll(), stats, generation);
     }
 
     /**
-     * Method that simulates a random play, but simplifies game logic for speed.
+     * Takes a snapshot of the most visited root children of a search.
      */
-    private static ArrayList<Move> makeRandomMoves(int[] points, int direction) {
+    private static Progress progress(Node tree, int iterations, long time) {
+        ArrayList<Node> children = new ArrayList<>(tree.getChildren());
+        children.sort((a, b) -> Integer.compare(b.getAll(), a.getAll()));
+
+        ArrayList<Progress.Candidate> candidates = new ArrayList<>();
+        for (Node child : children.subList(0, Math.min(Progress.CANDIDATES, children.size()))) {
+            candidates.add(new Progress.Candidate(child.getMoves(), child.getWins(), child.getAll(), tree.getAll()));
+        }
+
+        return new Progress(iterations, time, candidates);
+    }
+
+    /**
+     * Tells whether further iterations can't change the decision: the most visited
+     * play either can't be overtaken in the remaining iterations or is clearly
+     * better than the runner-up.
+     */
+    private static boolean decided(Node tree, long remaining) {
+        Node leader = null;
+        Node runnerUp = null;
+        for (Node child : tree.getChildren()) {
+            if (leader == null || leader.getAll() < child.getAll()) {
+                runnerUp = leader;
+                leader = child;
+            } else if (runnerUp == null || runnerUp.getAll() < child.getAll()) {
+                runnerUp = child;
+            }
+        }
+
+        if (runnerUp == null)
+            return true;
+
+        // Every remaining iteration visits exactly one root child.
+        if (leader.getAll() - runnerUp.getAll() > remaining)
+            return true;
+
+        if (runnerUp.getAll() == 0)
+            return false;
+
+        double[] first = Play.interval((double) leader.getWins() / leader.getAll(), leader.getAll(), SEPARATION);
+        double[] second = Play.interval((double) runnerUp.getWins() / runnerUp.getAll(), runnerUp.getAll(),
+                SEPARATION);
+        return first[0] > second[1];
+    }
+
+    // MARK: - Evaluation cache
+
+    /**
+     * Returns the cache key of a position, or null if we don't cache it.
+     */
+    private byte[] cacheKey(int[] points, int direction, List<Integer> dice) {
+        if (this.cache == null)
+            return null;
+
+        try {
+            return EvaluationCache.key(points, direction, dice);
+        } catch (IllegalArgumentException e) {
+            // Boards with too many checkers have no Position ID.
+            return null;
+        }
+    }
+
+    /**
+     * Returns the key of the position after a root move.
+     */
+    private byte[] cacheKey(Node child, int[] points, int direction, ArrayList<Integer> dice) {
+        if (child.getMoves().isEmpty())
+            return null;
+
+        for (Move move : child.getMoves()) {
+            dice = Game.useDie(dice, move.start, move.end);
+        }
+        return this.cacheKey(move(points, child.getMoves()), direction, dice);
+    }
+
+    /**
+     * Counts what the cache knows about the root moves as games searched from them
+     * and returns the wins and games of every child that were added this way.
+     */
+    private int[] warm(Node tree, int[] points, int direction, ArrayList<Integer> dice) {
+        if (this.cache == null)
+            return null;
+
+        List<Node> children = tree.getChildren();
+        int[] seeds = new int[2 * children.size()];
+
+        for (int i = 0; i < children.size(); i++) {
+            byte[] key = this.cacheKey(children.get(i), points, direction, dice);
+            EvaluationCache.Entry entry = key == null ? null : this.cache.get(key);
+            if (entry == null)
+                continue;
+
+            int all = Math.min(entry.visits, PRIOR_VISITS);
+            int wins = (int) Math.round(entry.win * all);
+            tree.seed(children.get(i), wins, all);
+
+            seeds[2 * i] = wins;
+            seeds[2 * i + 1] = all;
+        }
+
+        return seeds;
+    }
+
+    /**
+     * Returns the cached decision if it has been searched at least as much as the
+     * limits allow us to search it now, or settled by a search that was allowed as
+     * much.
+     */
+    private EvaluationCache.Entry answer(int[] points, int direction, ArrayList<Integer> dice, Limits limits) {
+        byte[] key = this.cacheKey(points, direction, dice);
+        EvaluationCache.Entry entry = key == null ? null : this.cache.get(key);
+        if (entry == null || entry.play == null || Math.max(entry.visits, entry.budget) < limits.iterations)
+            return null;
+        return entry;
+    }
+
+    /**
+     * Returns the root child whose play leads to the same position as the given
+     * one, or null if there is none.
+     */
+    private static Node child(Node tree, int[] points, ArrayList<Move> play) {
+        int[] target = move(points, play);
+        for (Node child : tree.getChildren()) {
+            if (Arrays.equals(move(points, child.getMoves()), target))
+                return child;
+        }
+        return null;
+    }
+
+    /**
+     * Writes the new games of the search to the cache in the background. The
+     * budget is what a search that stopped once its decision was settled was
+     * allowed, or 0.
+     */
+    private void remember(Node tree, int[] seeds, Node best, int[] points, int direction, ArrayList<Integer> dice,
+                          int budget) {
+        byte[] root = this.cacheKey(points, direction, dice);
+        if (root == null || best.getMoves().isEmpty())
+            return;
+
+        ArrayList<byte[]> keys = new ArrayList<>();
+        ArrayList<EvaluationCache.Entry> entries = new ArrayList<>();
+        int seeded = 0;
+
+        List<Node> children = tree.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            Node child = children.get(i);
+            int wins = child.getWins() - (seeds == null ? 0 : seeds[2 * i]);
+            int all = child.getAll() - (seeds == null ? 0 : seeds[2 * i + 1]);
+            seeded += child.getAll() - all;
+
+            byte[] key = this.cacheKey(child, points, direction, dice);
+            if (key == null || all < STORE_VISITS)
+                continue;
+
+            keys.add(key);
+            entries.add(new EvaluationCache.Entry((double) wins / all, all, null));
+        }
+
+        // The decision itself is worth what its best play is worth.
+        double win = (double) best.getWins() / best.getAll();
+        keys.add(root);
+        entries.add(new EvaluationCache.Entry(win, tree.getAll() - seeded, best.getMoves(), budget));
+
+        this.cache.putLater(keys, entries);
+    }
+
+    /**
+     * Tells whether the play is the answer to the latest request.
+     */
+    public boolean isCurrent(Play play) {
+        return play.generation == this.generation.get();
+    }
+
+    /**
+     * Makes all pending requests stale.
+     */
+    public void cancel() {
+        this.cancelled = this.generation.incrementAndGet();
+    }
+
+    /**
+     * Starts searching the replies to every play the opponent could make from the
+     * given position while the opponent is thinking.
+     */
+    public void ponder(int[] points, int direction, ArrayList<Integer> dice) {
+        this.ponderer.ponder(Game.clonePoints(points), direction, new ArrayList<>(dice));
+    }
+
+    /**
+     * Stops the background search and forgets everything it found.
+     */
+    public void stopPondering() {
+        this.ponderer.clear();
+    }
+
+    /**
+     * Creates a search tree whose children are all the complete plays we can make
+     * with the given dice.
+     */
+    static Node root(int[] points, int direction, ArrayList<Integer> dice) {
+        Node tree = new Node(new ArrayList<Move>());
+        for (ArrayList<Move> moves : allPlaysFromDice(points, direction, dice)) {
+            tree.addChild(new Node(moves));
+        }
+        return tree;
+    }
+
+    /**
+     * Continues the search of a tree from iteration `from` up to iteration `to`.
+     */
+    static void search(Node tree, Settings settings, int[] points, int direction, int from, int to) {
+        if (tree.search == null)
+            tree.search = new Search(settings);
+
+        for (int k = from; k < to; k++) {
+            tree.preSearch(points, -1 * direction, tree.search);
+        }
+    }
+
+    /**
+     * Method that simulates a random play, but simplifies game logic for speed. It
+     * rolls the dice and makes the moves on the given board.
+     */
+    static ArrayList<Move> makeRandomMoves(int[] points, int direction, Dice dice) {
         ArrayList<Move> moves = new ArrayList<Move>();
-        int i = 40;
         int bar = 25 * (1 - direction) / 2;
-        while (points[bar] != 0 && 0 < i) {
-            int end = direction * (r.nextInt(6) + 1) + bar;
-            if (points[end] * direction >= 0) {
-                points[end] += direction;
-                points[bar] -= direction;
-                moves.add(new Move(bar, end));
-                i -= 20;
-            } else if (points[end] * direction == -1) {
-                points[end] = direction;
-                points[bar] -= direction;
-                moves.add(new Move(bar, end));
-                i -= 20;
-            } else
-                i--;
-        }
-        while (0 < i) {
-            int start = r.nextInt(24) + 1;
-            if (points[start] * direction > 0) {
-                int end = direction * (r.nextInt(6) + 1) + start;
-                if (end * direction > 25 * (1 + direction) / 2) {
-                    points[start] -= direction;
-                } else if (points[end] * direction >= 0) {
-                    points[end] += direction;
-                    points[start] -= direction;
-                    moves.add(new Move(start, end));
-                    i -= 20;
-                } else if (points[end] * direction == -1) {
-                    points[end] = direction;
+        int opponentsBar = 25 * (1 + direction) / 2;
+
+        for (int die : dice.roll()) {
+            // Checkers on the bar have to enter first. We lose the die if we can't.
+            if (points[bar] != 0) {
+                int end = direction * die + bar;
+                if (points[end] * direction >= -1) {
+                    move(points, bar, end, direction, opponentsBar);
+                    moves.add(new Move(bar, end));
+                }
+                continue;
+            }
+
+            // Look for a checker that can use the die a couple of times.
+            for (int i = 0; i < 20; i++) {
+                int start = dice.nextInt(24) + 1;
+                if (points[start] * direction <= 0)
+                    continue;
+
+                int end = direction * die + start;
+                if (end * direction >= opponentsBar * direction) {
+                    // Bear the checker off.
                     points[start] -= direction;
-                    points[bar] = direction;
+                    moves.add(new Move(start, opponentsBar));
+                    break;
+                } else if (points[end] * direction >= -1) {
+                    move(points, start, end, direction, opponentsBar);
                     moves.add(new Move(start, end));
-                    i -= 20;
+                    break;
                 }
             }
-            i--;
         }
         return moves;
     }
 
-    private static ArrayList<ArrayList<Move>> allMovesFromDice(int[] points, int direction, ArrayList<Integer> dice) {
+    /**
+     * Moves a checker within the board, hitting the opponent's blot if there is one.
+     */
+    private static void move(int[] points, int start, int end, int direction, int opponentsBar) {
+        if (points[end] * direction == -1) {
+            points[end] = 0;
+            points[opponentsBar] -= direction;
+        }
+        points[end] += direction;
+        points[start] -= direction;
+    }
+
+    /**
+     * Returns every complete play the player could make with the given dice. Plays
+     * that lead to the same position are only listed once.
+     */
+    static ArrayList<ArrayList<Move>> allPlaysFromDice(int[] points, int direction, ArrayList<Integer> dice) {
+        LinkedHashMap<String, ArrayList<Move>> plays = new LinkedHashMap<>();
+        allPlaysFromDice(points, direction, dice, new ArrayList<Move>(), plays, new HashSet<String>());
+
+        return new ArrayList<>(plays.values());
+    }
+
+    private static void allPlaysFromDice(int[] points, int direction, ArrayList<Integer> dice, ArrayList<Move> play,
+                                         Map<String, ArrayList<Move>> plays, Set<String> visited) {
+        // Different orders of the same moves often lead to the same position.
+        if (!visited.add(key(points, direction, dice)))
+            return;
+
         int bar = 25 * (1 - direction) / 2;
         int opponentsBar = 25 * (1 + direction) / 2;
-        ArrayList<ArrayList<Move>> allMoves = new ArrayList<ArrayList<Move>>();
+        boolean moved = false;
 
-        for (int start = bar; start * direction < opponentsBar; start += direction) {
+        for (int start = bar; !dice.isEmpty() && start * direction < opponentsBar; start += direction) {
             for (Integer end : Game.getMoves(points, direction, dice, start)) {
-                ArrayList<Move> currMove = new ArrayList<Move>();
-                currMove.add(new Move(start, end));
-                allMoves.add(currMove);
+                ArrayList<Move> next = new ArrayList<Move>(play);
+                next.add(new Move(start, end));
+
+                int[] board = Game.move(points, start, end);
+                allPlaysFromDice(board, direction, Game.useDie(dice, start, end), next, plays, visited);
+                moved = true;
             }
         }
-        if (allMoves.isEmpty()) {
-            allMoves.add(new ArrayList<Move>());
+
+        if (!moved) {
+            plays.putIfAbsent(Arrays.toString(points), play);
         }
+    }
+
+    /**
+     * Returns a key that identifies the decision of a player with the given dice in
+     * the given position.
+     */
+    static String key(int[] points, int direction, List<Integer> dice) {
+        ArrayList<Integer> sorted = new ArrayList<>(dice);
+        Collections.sort(sorted);
 
-        return allMoves;
+        return PositionId.encode(points, direction) + direction + sorted;
     }
 
     /**
-     * Returns children that come from current node. expand doesnt check all
-     * possible Nodes it could come to in two moves, but rather a tenth of them,
-     * otherwise the tree would grow too quickly.
+     * Returns the moves that may be added as children of a node, best first by a
+     * cheap prior. Moves that lead to the same position are only listed once and
+     * only the best CANDIDATES are kept.
      */
-    private static Set<Node> expand(int[] points, int direction) {
+    private static ArrayList<ArrayList<Move>> expand(int[] points, int direction) {
         int bar = 25 * (1 - direction) / 2;
         int opponentsBar = 25 * (1 + direction) / 2;
-        Set<Node> children = new HashSet<Node>();
+
+        HashMap<String, ArrayList<Move>> candidates = new HashMap<>();
+        HashMap<ArrayList<Move>, Integer> priors = new HashMap<>();
 
         for (int start1 = bar; start1 * direction < opponentsBar; start1 += direction) {
             for (int throw1 = 1; throw1 < 7; throw1 += 1) {
                 int end1 = start1 + direction * throw1;
-                if (r.nextInt(10) > 8 && Game.isMoveValid(points, start1, end1)) {
+                if (points[start1] * direction > 0 && Game.isMoveValid(points, start1, end1)) {
                     int[] points1 = Game.move(Game.clonePoints(points), start1, end1);
                     for (int start2 = bar; start2 * direction < opponentsBar; start2 += direction) {
                         for (int throw2 = 1; throw2 < 7; throw2 += 1) {
                             int end2 = start2 + direction * throw2;
-                            if (Game.isMoveValid(points1, start2, end2)) {
+                            if (points1[start2] * direction > 0 && Game.isMoveValid(points1, start2, end2)) {
+                                int[] points2 = Game.move(points1, start2, end2);
+                                String key = Arrays.toString(points2);
+                                if (candidates.containsKey(key))
+                                    continue;
+
                                 ArrayList<Move> moves = new ArrayList<Move>();
                                 moves.add(new Move(start1, end1));
                                 moves.add(new Move(start2, end2));
-                                children.add(new Node(moves));
+                                candidates.put(key, moves);
+                                priors.put(moves, prior(points2, direction));
                             }
                         }
                     }
@@ -185,7 +648,45 @@ public class Computer {
             }
         }
 
-        return children;
+        ArrayList<ArrayList<Move>> sorted = new ArrayList<>(candidates.values());
+        sorted.sort((a, b) -> priors.get(b) - priors.get(a));
+
+        if (sorted.size() > CANDIDATES)
+            return new ArrayList<>(sorted.subList(0, CANDIDATES));
+        return sorted;
+    }
+
+    /**
+     * Cheap estimate of how good a position is for the player in a given direction.
+     * It rewards made points, hit checkers and checkers borne off and punishes blots.
+     */
+    static int prior(int[] points, int direction) {
+        int bar = 25 * (1 + direction) / 2;
+        int score = 4 * Math.abs(points[bar]);
+        int checkers = 0;
+
+        for (int i = 1; i < 25; i++) {
+            int own = points[i] * direction;
+            if (own >= 2)
+                score += 2;
+            if (own == 1)
+                score -= 2;
+            if (own > 0)
+                checkers += own;
+        }
+
+        // Checkers that have been borne off.
+        checkers += Math.abs(points[25 - bar]);
+        score += 3 * (15 - checkers);
+
+        return score;
+    }
+
+    /**
+     * Returns how many pips the player in a given direction still has to move.
+     */
+    static int pips(int[] points, int direction) {
+        return Game.getPips(points, direction);
     }
 
     private static boolean result(int[] points, int direction) {
@@ -227,32 +728,85 @@ public class Computer {
         /**
          * Children of this node. They are populated only when node is expanded.
          */
-        private Set<Node> children;
+        private ArrayList<Node> children;
 
-        public static int c = 2;
+        /**
+         * Moves that may still become children, best first. It is null until the
+         * node is expanded.
+         */
+        private ArrayList<ArrayList<Move>> candidates;
+
+        /**
+         * Index of the next candidate that becomes a child.
+         */
+        private int next;
+
+        /**
+         * Batch means of the win rate. A batch covers all outcomes of the first roll
+         * once, so their spread shows the variance the search actually achieved.
+         */
+        private int batchWins;
+        private int batchAll;
+        private int batches;
+        private double batchSum;
+        private double batchSquares;
+
+        /**
+         * State shared by the whole tree. Only root has it.
+         */
+        private Search search;
 
         public Node(ArrayList<Move> moves) {
             this.moves = moves;
-            this.children = new HashSet<Node>();
+            this.children = new ArrayList<Node>();
         }
 
         public void addChild(Node child) {
             this.children.add(child);
         }
 
-        public static double UCT(Node root, Node child) {
+        /**
+         * Counts games that a child is known to have from earlier searches as if they
+         * went through this node.
+         */
+        void seed(Node child, int wins, int all) {
+            child.wins += wins;
+            child.all += all;
+            this.wins += all - wins;
+            this.all += all;
+
+            // Known games don't belong to any batch of this search.
+            this.batchWins = this.wins;
+            this.batchAll = this.all;
+        }
+
+        /**
+         * Returns the UCT value of a child whose moves were made by the player in the
+         * given direction. The child's win rate is blended with the all-moves-as-first
+         * value of its moves, which fades away as the child gets visited.
+         */
+        public static double UCT(Node root, Node child, Search search, int direction) {
             if (child.getAll() == 0) {
                 return 100;
             }
-            return ((float) child.getWins() / (float) child.getAll()
-                    + c * Math.sqrt(Math.log(root.getAll()) / child.getAll()));
+
+            double value = (double) child.getWins() / child.getAll();
+            double rave = search.amaf.value(direction, child.getMoves());
+            double k = search.settings.raveEquivalence;
+            if (rave >= 0 && k > 0) {
+                double beta = Math.sqrt(k / (3 * child.getAll() + k));
+                value = (1 - beta) * value + beta * rave;
+            }
+
+            double c = search.settings.exploration;
+            return value + c * Math.sqrt(Math.log(root.getAll()) / child.getAll());
         }
 
-        public Node bestChild() {
-            Node best = new Node(null);
-            double max = 0;
+        public Node bestChild(Search search, int direction) {
+            Node best = null;
+            double max = Double.NEGATIVE_INFINITY;
             for (Node child : children) {
-                double uct = UCT(this, child);
+                double uct = UCT(this, child, search, direction);
                 if (max < uct) {
                     best = child;
                     max = uct;
@@ -276,46 +830,113 @@ public class Computer {
             return best;
         }
 
-        public boolean search(int[] points, int direction) {
-            int[] currPoints = move(points, this.moves);
+        /**
+         * Plays a random game from the position after this node's moves and tells
+         * whether the player that made them wins it. The n-th game from a node uses
+         * the same dice as the n-th game from its siblings. All moves of the game are
+         * recorded in the all-moves-as-first statistics.
+         */
+        public boolean search(int[] points, int direction, Search search) {
+            int[] board = Game.clonePoints(move(points, this.moves));
+            int turn = direction;
+            Dice dice = new Dice(this.all);
+
+            ArrayList<Move> mine = new ArrayList<>(this.moves);
+            ArrayList<Move> theirs = new ArrayList<>();
+
+            boolean race = search.settings.evaluator == Settings.Evaluator.RACE;
+            boolean won;
+
+            for (int ply = 0; ; ply++) {
+                // Checks if the player that was last on the move has won.
+                if (result(board, turn)) {
+                    won = turn == direction;
+                    break;
+                }
 
-            // Checks if this is a winning Node. Has to check only for player
-            // that was last on the move.
-            if (result(currPoints, direction)) {
-                // return false, because for his parent node, this isnt good
-                return false;
+                // Let the pip count decide a game that went on long enough.
+                if (race && ply == Settings.RACE_PLIES) {
+                    won = pips(board, direction) < pips(board, -1 * direction);
+                    break;
+                }
+
+                turn = -1 * turn;
+                ArrayList<Move> moves = makeRandomMoves(board, turn, dice);
+
+                if (turn == direction)
+                    mine.addAll(moves);
+                else
+                    theirs.addAll(moves);
             }
 
-            ArrayList<Move> moves = makeRandomMoves(points, direction);
-            Node child = new Node(moves);
+            search.amaf.update(direction, mine, won);
+            search.amaf.update(-1 * direction, theirs, !won);
+
+            return won;
+        }
+
+        public Yield preSearch(int[] points, int direction, Search search) {
+            Yield yield = this.visit(points, direction, search);
+
+            // Close the batch once it has seen all first rolls.
+            if (this.all - this.batchAll >= Dice.OUTCOMES) {
+                double mean = (double) (this.wins - this.batchWins) / (this.all - this.batchAll);
+                this.batches++;
+                this.batchSum += mean;
+                this.batchSquares += mean * mean;
+                this.batchWins = this.wins;
+                this.batchAll = this.all;
+            }
 
-            return !child.search(currPoints, direction * -1);
+            return yield;
         }
 
-        public Yield preSearch(int[] points, int direction, boolean expand) {
+        /**
+         * Returns the variance of the win rate estimate from the batch means, or NaN if
+         * there are fewer than two batches.
+         */
+        public double variance() {
+            if (this.batches < 2)
+                return Double.NaN;
+
+            double mean = this.batchSum / this.batches;
+            double spread = (this.batchSquares - this.batches * mean * mean) / (this.batches - 1);
+            return Math.max(0, spread) / this.batches;
+        }
+
+        private Yield visit(int[] points, int direction, Search search) {
             int[] currPoints = move(points, this.moves);
             if (result(currPoints, direction)) {
                 wins++;
                 all++;
                 return new Yield(0, 1);
-            } else if (children.isEmpty() && expand) {
-                this.children = Computer.expand(points, -1 * direction);
-                int currAll = 0;
-                int currWins = 0;
-                for (Node child : this.children) {
-                    if (child.search(currPoints, -1 * direction)) {
-                        child.wins++;
-                    } else {
-                        currWins++;
-                    }
-                    child.all++;
-                    currAll++;
+            }
+
+            // Expand the node once it has been visited often enough. Nodes that
+            // were given children up front (i.e. root) have nothing to widen.
+            if (this.candidates == null && this.all >= EXPAND_VISITS) {
+                if (this.children.isEmpty())
+                    this.candidates = Computer.expand(currPoints, -1 * direction);
+                else
+                    this.candidates = new ArrayList<>();
+            }
+
+            if (this.candidates != null && this.next < this.candidates.size() && this.children.size() < this.width()) {
+                // Add the next best candidate and play a random game from it.
+                Node child = new Node(this.candidates.get(this.next++));
+                this.children.add(child);
+
+                boolean won = child.search(currPoints, -1 * direction, search);
+                child.all++;
+                this.all++;
+                if (won) {
+                    child.wins++;
+                    return new Yield(1, 1);
                 }
-                all += currAll;
-                wins += currWins;
-                return new Yield(currAll - currWins, currAll);
+                this.wins++;
+                return new Yield(0, 1);
             } else if (children.isEmpty()) {
-                if (search(points, direction)) {
+                if (search(points, direction, search)) {
                     this.wins++;
                     this.all++;
                     return new Yield(0, 1);
@@ -323,14 +944,21 @@ public class Computer {
                 this.all++;
                 return new Yield(1, 1);
             } else {
-                Node child = bestChild();
-                Yield yield = child.preSearch(currPoints, -1 * direction, expand);
+                Node child = bestChild(search, -1 * direction);
+                Yield yield = child.preSearch(currPoints, -1 * direction, search);
                 wins += yield.wins;
                 all += yield.all;
                 return new Yield(yield.all - yield.wins, yield.all);
             }
         }
 
+        /**
+         * Tells how many children the node may have given its number of visits.
+         */
+        private int width() {
+            return (int) Math.ceil(WIDENING * Math.pow(this.all, WIDENING_EXPONENT));
+        }
+
         public int getAll() {
             return all;
         }
@@ -339,7 +967,7 @@ public class Computer {
             return wins;
         }
 
-        public Set<Node> getChildren() {
+        public List<Node> getChildren() {
             return children;
         }
 
@@ -358,6 +986,11 @@ public class Computer {
             this.end = end;
         }
 
+        @Override
+        public String toString() {
+            return this.start + "/" + this.end;
+        }
+
     }
 
     static class Yield {
@@ -0,0 +1,138 @@
+package intelligence;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Dice gives the rolls of a single rollout. Rollouts are numbered and the n-th
+ * rollout always gets the same dice, so that sibling nodes are compared on the
+ * same rolls (common random numbers).
+ * <p>
+ * The first roll goes through all 36 outcomes in turn, so every 36 rollouts
+ * sample each of the 21 rolls exactly as often as it comes up. The remaining
+ * dice come from a Kronecker sequence, where the k-th die of the n-th rollout is
+ * frac(n * alpha_k + shift_k). Such sequences cover the outcomes much more evenly
+ * than independent random numbers.
+ */
+class Dice {
+
+    /**
+     * Number of dice that come from the quasi-random sequence. The dice after them
+     * are pseudo-random.
+     */
+    private static final int DIMENSIONS = 512;
+
+    /**
+     * Number of ordered outcomes of two dice.
+     */
+    static final int OUTCOMES = 36;
+
+    /**
+     * Seed of the shifts of the sequence, overridable with the backgammon.seed
+     * system property. A fixed seed makes searches repeat across runs.
+     */
+    static final long SEED = Long.getLong("backgammon.seed", 0x2545F4914F6CDD1DL);
+
+    private static final double[] ALPHAS = new double[DIMENSIONS];
+    private static final double[] SHIFTS = new double[DIMENSIONS];
+
+    static {
+        // Fractional parts of square roots of primes are irrational and independent
+        // of each other, which is what a Kronecker sequence needs.
+        Random random = new Random(SEED);
+        int prime = 1;
+
+        for (int k = 0; k < DIMENSIONS; k++) {
+            prime = nextPrime(prime);
+
+            double root = Math.sqrt(prime);
+            ALPHAS[k] = root - Math.floor(root);
+            SHIFTS[k] = random.nextDouble();
+        }
+    }
+
+    private static int nextPrime(int n) {
+        for (int candidate = n + 1; ; candidate++) {
+            boolean prime = true;
+            for (int d = 2; d * d <= candidate; d++) {
+                if (candidate % d == 0) {
+                    prime = false;
+                    break;
+                }
+            }
+            if (prime)
+                return candidate;
+        }
+    }
+
+    // MARK: - State
+
+    /**
+     * Index of the rollout.
+     */
+    private final long n;
+
+    /**
+     * Index of the next die in the rollout.
+     */
+    private int dimension;
+
+    /**
+     * Randomness for everything but the dice, also fixed by the rollout index.
+     */
+    private final SplittableRandom random;
+
+    // MARK: - Constructor
+
+    Dice(long n) {
+        this.n = n;
+        this.dimension = 0;
+        this.random = new SplittableRandom(n * 0x9E3779B97F4A7C15L);
+    }
+
+    // MARK: - Methods
+
+    /**
+     * Rolls the next pair of dice, doubled on combo.
+     */
+    int[] roll() {
+        int first;
+        int second;
+
+        if (this.dimension == 0) {
+            // Stratify the first roll.
+            int stratum = (int) (this.n % OUTCOMES);
+            first = stratum / 6 + 1;
+            second = stratum % 6 + 1;
+            this.dimension = 2;
+        } else {
+            first = this.die();
+            second = this.die();
+        }
+
+        if (first == second)
+            return new int[]{first, first, first, first};
+        return new int[]{first, second};
+    }
+
+    private int die() {
+        int k = this.dimension++;
+
+        double x;
+        if (k < DIMENSIONS) {
+            x = this.n * ALPHAS[k] + SHIFTS[k];
+            x = x - Math.floor(x);
+        } else {
+            x = this.random.nextDouble();
+        }
+
+        return (int) (6 * x) + 1;
+    }
+
+    /**
+     * Returns a pseudo-random number between 0 (inclusive) and bound (exclusive).
+     */
+    int nextInt(int bound) {
+        return this.random.nextInt(bound);
+    }
+}
@@ -0,0 +1,159 @@
+package intelligence;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * EngineStats collects the statistics of all decisions and exposes them over JMX
+ * under the name intelligence:type=Engine.
+ */
+public class EngineStats implements EngineStatsMBean {
+
+    private static final String NAME = "intelligence:type=Engine";
+
+    private static EngineStats shared;
+
+    // MARK: - State
+
+    private long decisions;
+    private long totalIterations;
+    private long totalAllocatedBytes;
+
+    /**
+     * Statistics of the last decision.
+     */
+    private SearchStats last;
+
+    // MARK: - Constructor
+
+    private EngineStats() {
+    }
+
+    /**
+     * Returns the statistics shared by all engines and registers them with the
+     * platform MBean server the first time.
+     */
+    public static synchronized EngineStats shared() {
+        if (shared == null) {
+            shared = new EngineStats();
+
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                server.registerMBean(shared, new ObjectName(NAME));
+            } catch (JMException e) {
+                System.out.println("ERROR: " + e.getMessage());
+            }
+        }
+
+        return shared;
+    }
+
+    // MARK: - Methods
+
+    /**
+     * Records the statistics of a finished decision.
+     */
+    synchronized void record(SearchStats stats) {
+        this.decisions++;
+        this.totalIterations += stats.iterations;
+        if (stats.allocatedBytes > 0)
+            this.totalAllocatedBytes += stats.allocatedBytes;
+
+        this.last = stats;
+    }
+
+    // MARK: - Accessors
+
+    @Override
+    public synchronized long getDecisions() {
+        return this.decisions;
+    }
+
+    @Override
+    public synchronized long getTotalIterations() {
+        return this.totalIterations;
+    }
+
+    @Override
+    public synchronized long getTotalAllocatedBytes() {
+        return this.totalAllocatedBytes;
+    }
+
+    @Override
+    public synchronized int getIterations() {
+        return this.last == null ? 0 : this.last.iterations;
+    }
+
+    @Override
+    public synchronized int getPonderedIterations() {
+        return this.last == null ? 0 : this.last.pondered;
+    }
+
+    @Override
+    public synchronized double getIterationsPerSecond() {
+        return this.last == null ? 0 : this.last.iterationsPerSecond();
+    }
+
+    @Override
+    public synchronized double getRolloutsPerSecond() {
+        return this.last == null ? 0 : this.last.rolloutsPerSecond();
+    }
+
+    @Override
+    public synchronized int getNodes() {
+        return this.last == null ? 0 : this.last.nodes;
+    }
+
+    @Override
+    public synchronized int getMaxDepth() {
+        return this.last == null ? 0 : this.last.maxDepth;
+    }
+
+    @Override
+    public synchronized double getAverageDepth() {
+        return this.last == null ? 0 : this.last.averageDepth;
+    }
+
+    @Override
+    public synchronized double getVariance() {
+        return this.last == null ? 0 : this.last.variance;
+    }
+
+    @Override
+    public synchronized double getBinomialVariance() {
+        return this.last == null ? 0 : this.last.binomialVariance;
+    }
+
+    @Override
+    public synchronized String getPrincipalVariation() {
+        return this.last == null ? "" : this.last.principalVariation.toString();
+    }
+
+    @Override
+    public synchronized int[] getRootVisits() {
+        return this.last == null ? new int[0] : this.last.rootVisits.clone();
+    }
+
+    @Override
+    public synchronized double getGenerationMillis() {
+        return this.last == null ? 0 : this.last.generationTime / 1e6;
+    }
+
+    @Override
+    public synchronized double getSearchMillis() {
+        return this.last == null ? 0 : this.last.searchTime / 1e6;
+    }
+
+    @Override
+    public synchronized double getSelectionMillis() {
+        return this.last == null ? 0 : this.last.selectionTime / 1e6;
+    }
+
+    @Override
+    public synchronized long getAllocatedBytes() {
+        return this.last == null ? 0 : this.last.allocatedBytes;
+    }
+}
@@ -0,0 +1,54 @@
+package intelligence;
+
+/**
+ * Management interface of EngineStats, exposed over JMX.
+ */
+public interface EngineStatsMBean {
+    /**
+     * Number of decisions made since the start of the app.
+     */
+    long getDecisions();
+
+    /**
+     * Iterations made in all decisions.
+     */
+    long getTotalIterations();
+
+    /**
+     * Bytes allocated by all searches that ran on platform threads. Allocations of
+     * virtual threads aren't measured.
+     */
+    long getTotalAllocatedBytes();
+
+    // The remaining attributes describe the last decision.
+
+    int getIterations();
+
+    int getPonderedIterations();
+
+    double getIterationsPerSecond();
+
+    double getRolloutsPerSecond();
+
+    int getNodes();
+
+    int getMaxDepth();
+
+    double getAverageDepth();
+
+    double getVariance();
+
+    double getBinomialVariance();
+
+    String getPrincipalVariation();
+
+    int[] getRootVisits();
+
+    double getGenerationMillis();
+
+    double getSearchMillis();
+
+    double getSelectionMillis();
+
+    long getAllocatedBytes();
+}
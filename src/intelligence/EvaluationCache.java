@@ -0,0 +1,432 @@
+package intelligence;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import model.PositionId;
+
+/**
+ * EvaluationCache remembers what earlier searches found out about positions, so
+ * that evaluations build up across games and app starts instead of being lost on
+ * exit.
+ * <p>
+ * It's an open addressing hash table in a memory mapped file. A position is the
+ * board, the player and the dice the player still has to play (none once the
+ * turn is over) and maps to the share of searched games that player won, the
+ * number of those games and the best play if there was a decision to make. A
+ * position may only live in the few slots after its hash, and when they are all
+ * taken the one written longest ago makes room, so the file never grows.
+ * <p>
+ * Several processes may share the file. Writes take an exclusive lock on it and
+ * reads a shared one, so no process sees a slot another one is writing.
+ */
+public class EvaluationCache {
+
+    /**
+     * Identifies the file format.
+     */
+    private static final int MAGIC = 0x42474543;
+    private static final int VERSION = 2;
+
+    private static final int HEADER = 16;
+
+    /**
+     * Layout of a slot: the key, the win rate, the number of visits, the play, the
+     * time of the last write and the budget of the search that settled the play.
+     */
+    private static final int SLOT = 32;
+    private static final int KEY = PositionId.BYTES + 2;
+    private static final int WIN = 12;
+    private static final int VISITS = 16;
+    private static final int PLAY = 20;
+    private static final int STAMP = 24;
+    private static final int BUDGET = 28;
+
+    /**
+     * Number of slots a position may be stored in.
+     */
+    private static final int PROBES = 8;
+
+    /**
+     * Default number of slots, about 16MB on disk.
+     */
+    public static final int CAPACITY = 1 << 19;
+
+    /**
+     * How many writes may wait for the writer before we start dropping them.
+     */
+    private static final int PENDING = 64;
+
+    private static EvaluationCache shared;
+    private static boolean opened;
+
+    // MARK: - Entry
+
+    /**
+     * What we know about a position.
+     */
+    public static class Entry {
+        public final double win;
+        public final int visits;
+
+        /**
+         * The moves of the best play, or null if there wasn't a decision to make.
+         */
+        public final ArrayList<Computer.Move> play;
+
+        /**
+         * Iterations a search was allowed when it stopped early because its play
+         * couldn't change any more, or 0. The play is as good as one searched that
+         * many times.
+         */
+        public final int budget;
+
+        public Entry(double win, int visits, ArrayList<Computer.Move> play) {
+            this(win, visits, play, 0);
+        }
+
+        public Entry(double win, int visits, ArrayList<Computer.Move> play, int budget) {
+            this.win = win;
+            this.visits = visits;
+            this.play = play;
+            this.budget = budget;
+        }
+    }
+
+    // MARK: - State
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    /**
+     * Increases with every write, so we know which slot was written longest ago.
+     * Other processes increase it as well, so we read it again before we write.
+     */
+    private int stamp;
+
+    /**
+     * Single thread that makes the writes off the search threads.
+     */
+    private final ExecutorService writer;
+
+    // MARK: - Constructor
+
+    /**
+     * Opens the cache in the given file or creates it there with the given number of
+     * slots. A file in a different format is overwritten. Other processes may
+     * open the same file, but a process should only open it once, which shared
+     * does.
+     */
+    public EvaluationCache(File file, int capacity) throws IOException {
+        if (Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Capacity has to be a power of two.");
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null)
+            parent.mkdirs();
+
+        long size = HEADER + (long) capacity * SLOT;
+
+        // The channel stays open as long as the cache for the locks.
+        this.channel = new RandomAccessFile(file, "rw").getChannel();
+        this.capacity = capacity;
+
+        FileLock lock = this.channel.lock();
+        try {
+            if (this.channel.size() != size)
+                this.channel.truncate(0);
+
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != VERSION
+                    || this.buffer.getInt(8) != capacity) {
+                for (long i = 0; i < size; i += 8) {
+                    this.buffer.putLong((int) i, 0);
+                }
+                this.buffer.putInt(0, MAGIC);
+                this.buffer.putInt(4, VERSION);
+                this.buffer.putInt(8, capacity);
+            }
+            this.stamp = this.buffer.getInt(12);
+        } finally {
+            lock.release();
+        }
+
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(PENDING),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "evaluation-cache");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Returns the cache in the user's home directory that all computers share, or
+     * null if it can't be opened. The file may be moved with the
+     * backgammon.cache system property.
+     */
+    public static synchronized EvaluationCache shared() {
+        if (!opened) {
+            opened = true;
+
+            String home = System.getProperty("user.home");
+            String path = System.getProperty("backgammon.cache", home + "/.backgammon/evaluations.bin");
+            try {
+                shared = new EvaluationCache(new File(path), CAPACITY);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Evaluation cache is off: " + e);
+            }
+        }
+        return shared;
+    }
+
+    // MARK: - Keys
+
+    /**
+     * Returns the key of a position: its Position ID, the player and the dice.
+     */
+    public static byte[] key(int[] points, int direction, List<Integer> dice) {
+        byte[] key = new byte[KEY];
+        System.arraycopy(PositionId.key(points, direction), 0, key, 0, PositionId.BYTES);
+        key[PositionId.BYTES] = (byte) (direction == 1 ? 1 : 2);
+        key[PositionId.BYTES + 1] = (byte) dice(dice);
+        return key;
+    }
+
+    /**
+     * Packs the dice a player still has into a byte. Two different dice are a*7+b,
+     * n equal dice are 100+10n+a and no dice are 0.
+     */
+    private static int dice(List<Integer> dice) {
+        if (dice.isEmpty())
+            return 0;
+
+        int min = Collections.min(dice);
+        int max = Collections.max(dice);
+        if (min == max)
+            return 100 + 10 * dice.size() + min;
+        return min * 7 + max;
+    }
+
+    private int home(byte[] key) {
+        long hash = 0;
+        for (byte b : key) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+
+        return (int) hash & (this.capacity - 1);
+    }
+
+    private int offset(int slot) {
+        return HEADER + slot * SLOT;
+    }
+
+    private boolean matches(int offset, byte[] key) {
+        for (int i = 0; i < KEY; i++) {
+            if (this.buffer.get(offset + i) != key[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Empty slots have no player.
+     */
+    private boolean isEmpty(int offset) {
+        return this.buffer.get(offset + PositionId.BYTES) == 0;
+    }
+
+    // MARK: - Methods
+
+    /**
+     * Returns what we know about a position, or null if we know nothing.
+     */
+    public synchronized Entry get(byte[] key) {
+        try {
+            FileLock lock = this.channel.lock(0, Long.MAX_VALUE, true);
+            try {
+                return this.find(key);
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Entry find(byte[] key) {
+        int home = this.home(key);
+
+        for (int i = 0; i < PROBES; i++) {
+            int offset = this.offset((home + i) & (this.capacity - 1));
+            if (this.isEmpty(offset))
+                return null;
+            if (this.matches(offset, key))
+                return this.read(offset);
+        }
+        return null;
+    }
+
+    /**
+     * Adds the games of a search to what we know about a position. Games of earlier
+     * searches are kept, so the estimate gets better every time the position comes
+     * up. A decision, which comes with a play, instead replaces the stored one as a
+     * whole, and only if its search was at least as thorough.
+     */
+    public synchronized void put(byte[] key, double win, int visits, ArrayList<Computer.Move> play, int budget) {
+        this.putAll(List.of(key), List.of(new Entry(win, visits, play, budget)));
+    }
+
+    /**
+     * Adds the games of many positions at once, under a single lock of the file.
+     * Evaluations are dropped if the file can't be locked.
+     */
+    private synchronized void putAll(List<byte[]> keys, List<Entry> entries) {
+        try {
+            FileLock lock = this.channel.lock();
+            try {
+                this.stamp = this.buffer.getInt(12);
+
+                for (int i = 0; i < keys.size(); i++) {
+                    Entry entry = entries.get(i);
+                    this.write(keys.get(i), entry.win, entry.visits, entry.play, entry.budget);
+                }
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            // We only lose evaluations, which later searches find again.
+        }
+    }
+
+    private void write(byte[] key, double win, int visits, ArrayList<Computer.Move> play, int budget) {
+        if (visits <= 0)
+            return;
+
+        int home = this.home(key);
+        int target = -1;
+        int oldest = Integer.MAX_VALUE;
+
+        for (int i = 0; i < PROBES; i++) {
+            int offset = this.offset((home + i) & (this.capacity - 1));
+
+            if (this.isEmpty(offset) || this.matches(offset, key)) {
+                target = offset;
+                break;
+            }
+
+            // Remember the slot that was written longest ago in case we need room.
+            int age = this.stamp - this.buffer.getInt(offset + STAMP);
+            if (target == -1 || age > oldest) {
+                target = offset;
+                oldest = age;
+            }
+        }
+
+        if (!this.isEmpty(target) && this.matches(target, key)) {
+            Entry entry = this.read(target);
+
+            if (play == null) {
+                // Evaluations add up the games of all searches.
+                long total = (long) entry.visits + visits;
+                win = (entry.win * entry.visits + win * visits) / total;
+                visits = (int) Math.min(Integer.MAX_VALUE, total);
+                play = entry.play;
+                budget = entry.budget;
+            } else if (Math.max(visits, budget) < Math.max(entry.visits, entry.budget)) {
+                // A decision is only as good as the single search that made it, so a
+                // less thorough one doesn't replace it.
+                return;
+            }
+        }
+
+        for (int i = 0; i < KEY; i++) {
+            this.buffer.put(target + i, key[i]);
+        }
+        this.buffer.putFloat(target + WIN, (float) win);
+        this.buffer.putInt(target + VISITS, visits);
+        this.buffer.putInt(target + PLAY, play == null ? 0 : pack(play, key[PositionId.BYTES] == 1 ? 1 : -1));
+        this.buffer.putInt(target + STAMP, ++this.stamp);
+        this.buffer.putInt(target + BUDGET, budget);
+        this.buffer.putInt(12, this.stamp);
+    }
+
+    /**
+     * Writes the evaluations on the cache's own thread. Writes are dropped when the
+     * writer falls far behind.
+     */
+    public void putLater(List<byte[]> keys, List<Entry> entries) {
+        ArrayList<byte[]> k = new ArrayList<>(keys);
+        ArrayList<Entry> e = new ArrayList<>(entries);
+
+        this.writer.execute(() -> this.putAll(k, e));
+    }
+
+    /**
+     * Writes the changes to the disk.
+     */
+    public synchronized void flush() {
+        this.buffer.force();
+    }
+
+    private Entry read(int offset) {
+        double win = this.buffer.getFloat(offset + WIN);
+        int visits = this.buffer.getInt(offset + VISITS);
+        int play = this.buffer.getInt(offset + PLAY);
+        int direction = this.buffer.get(offset + PositionId.BYTES) == 1 ? 1 : -1;
+        int budget = this.buffer.getInt(offset + BUDGET);
+
+        return new Entry(win, visits, play == 0 ? null : unpack(play, direction), budget);
+    }
+
+    /**
+     * Packs a play of up to four moves in an int, a move per byte. A byte holds the
+     * start point and how far the checker went, so no move is 0.
+     */
+    private static int pack(ArrayList<Computer.Move> play, int direction) {
+        if (play.isEmpty() || play.size() > 4)
+            throw new IllegalArgumentException("A play has one to four moves.");
+
+        int packed = 0;
+        for (int i = 0; i < play.size(); i++) {
+            Computer.Move move = play.get(i);
+            int distance = (move.end - move.start) * direction;
+            if (move.start < 0 || move.start > 25 || distance < 1 || distance > 6)
+                throw new IllegalArgumentException("Not a move of the player: " + move);
+
+            packed |= (move.start << 3 | distance) << (8 * i);
+        }
+        return packed;
+    }
+
+    private static ArrayList<Computer.Move> unpack(int packed, int direction) {
+        ArrayList<Computer.Move> play = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int value = packed >>> (8 * i) & 0xff;
+            if (value == 0)
+                break;
+
+            int start = value >>> 3;
+            play.add(new Computer.Move(start, start + direction * (value & 7)));
+        }
+        return play;
+    }
+}
@@ -0,0 +1,67 @@
+package intelligence;
+
+/**
+ * Limits tell when a search has to stop: after a number of iterations, after some
+ * time or when somebody stops it, whichever comes first.
+ */
+public class Limits {
+
+    /**
+     * Iterations the search may make, counting the ones made while pondering.
+     */
+    public final int iterations;
+
+    /**
+     * Milliseconds the search may take, or 0 for no time limit.
+     */
+    public final long time;
+
+    private volatile boolean stopped;
+
+    // MARK: - Constructor
+
+    public Limits(int iterations, long time) {
+        if (iterations < 1)
+            throw new IllegalArgumentException("A search needs at least one iteration.");
+        if (time < 0)
+            throw new IllegalArgumentException("Time can't be negative.");
+
+        this.iterations = iterations;
+        this.time = time;
+    }
+
+    /**
+     * Returns limits that only stop the search after the given time.
+     */
+    public static Limits time(long time) {
+        return new Limits(Integer.MAX_VALUE, time);
+    }
+
+    /**
+     * Returns limits that only stop the search when it is stopped.
+     */
+    public static Limits infinite() {
+        return new Limits(Integer.MAX_VALUE, 0);
+    }
+
+    // MARK: - Methods
+
+    /**
+     * Makes the search return the best play it has found so far.
+     */
+    public void stop() {
+        this.stopped = true;
+    }
+
+    public boolean isStopped() {
+        return this.stopped;
+    }
+
+    /**
+     * Tells whether the search has a finite number of iterations, so that it may
+     * stop early once more of them can't change its decision.
+     */
+    public boolean isBounded() {
+        return this.iterations < Integer.MAX_VALUE;
+    }
+}
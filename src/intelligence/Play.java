@@ -0,0 +1,68 @@
+package intelligence;
+
+import java.util.ArrayList;
+
+/**
+ * Play is the decision of the Computer in a given position.
+ */
+public class Play {
+
+    /**
+     * The position the play was computed for.
+     */
+    public final int[] points;
+
+    /**
+     * The moves that the computer wants to make.
+     */
+    public final ArrayList<Computer.Move> moves;
+
+    /**
+     * Share of the searched games that the player won after this play and the
+     * number of those games.
+     */
+    public final double win;
+    public final int visits;
+
+    /**
+     * Statistics of the search that found the play.
+     */
+    public final SearchStats stats;
+
+    /**
+     * Token of the request that asked for the play.
+     */
+    final long generation;
+
+    Play(int[] points, ArrayList<Computer.Move> moves, int wins, int visits, SearchStats stats, long generation) {
+        this.points = points;
+        this.moves = moves;
+        this.win = visits == 0 ? 0 : (double) wins / visits;
+        this.visits = visits;
+        this.stats = stats;
+        this.generation = generation;
+    }
+
+    /**
+     * Returns the Wilson score interval of the win probability for a given z (e.g.
+     * 1.96 for 95% confidence).
+     */
+    public double[] interval(double z) {
+        return interval(this.win, this.visits, z);
+    }
+
+    /**
+     * Returns the Wilson score interval of a win rate measured over the given number
+     * of games.
+     */
+    static double[] interval(double win, int visits, double z) {
+        if (visits == 0)
+            return new double[]{0, 1};
+
+        double n = visits;
+        double center = (win + z * z / (2 * n)) / (1 + z * z / n);
+        double spread = z * Math.sqrt(win * (1 - win) / n + z * z / (4 * n * n)) / (1 + z * z / n);
+
+        return new double[]{center - spread, center + spread};
+    }
+}
@@ -0,0 +1,268 @@
+package intelligence;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import model.Game;
+
+/**
+ * Ponderer searches our replies to every play the opponent could make while the
+ * opponent is still thinking. When the opponent finishes, Computer picks up the
+ * tree of the position that actually came up and continues from there.
+ */
+class Ponderer {
+
+    /**
+     * How many positions may be kept in memory at once.
+     */
+    private static final int MAX_ENTRIES = 2048;
+
+    /**
+     * Share of the maximum heap the pondering may fill before it stops growing.
+     */
+    private static final double MEMORY_BUDGET = 0.5;
+
+    /**
+     * How many iterations a worker makes on a position before moving on to the next
+     * one, so that all positions get searched a little.
+     */
+    private static final int CHUNK = 200;
+
+    /**
+     * Number of threads we give to pondering. We leave at least half of the cores
+     * to the rest of the app.
+     */
+    private static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * All 21 different rolls of two dice.
+     */
+    private static final ArrayList<ArrayList<Integer>> ROLLS = new ArrayList<>();
+
+    static {
+        for (int first = 1; first < 7; first++) {
+            for (int second = first; second < 7; second++) {
+                ArrayList<Integer> dice = new ArrayList<>();
+                dice.add(first);
+                dice.add(second);
+
+                // Double the points on combo.
+                if (first == second) {
+                    dice.add(first);
+                    dice.add(first);
+                }
+
+                ROLLS.add(dice);
+            }
+        }
+    }
+
+    // MARK: - Entry
+
+    /**
+     * A position that we are searching together with the tree we have built so far.
+     */
+    static class Entry {
+        final int[] points;
+        final int direction;
+        final Computer.Node tree;
+
+        /**
+         * Number of iterations that have already been made on the tree.
+         */
+        int iterations;
+
+        /**
+         * Tells that Computer has taken the tree and we may not touch it anymore.
+         */
+        boolean taken;
+
+        /**
+         * Search round the entry belongs to.
+         */
+        volatile long generation;
+
+        Entry(int[] points, int direction, ArrayList<Integer> dice, long generation) {
+            this.points = points;
+            this.direction = direction;
+            this.tree = Computer.root(points, direction, dice);
+            this.generation = generation;
+        }
+    }
+
+    // MARK: - State
+
+    /**
+     * Settings of the computer we ponder for.
+     */
+    private final Settings settings;
+
+    private final ConcurrentHashMap<String, Entry> entries;
+    private final LinkedBlockingQueue<Entry> queue;
+
+    /**
+     * Increases every time the position we ponder on changes. Workers drop the
+     * entries of previous rounds.
+     */
+    private final AtomicLong generation;
+
+    /**
+     * Thread that figures out which positions we should search.
+     */
+    private final ExecutorService planner;
+
+    /**
+     * Tells whether the workers are running. Most computers never ponder, so we
+     * only start them the first time we do.
+     */
+    private boolean started;
+
+    // MARK: - Constructor
+
+    Ponderer(Settings settings) {
+        this.settings = settings;
+        this.entries = new ConcurrentHashMap<>();
+        this.queue = new LinkedBlockingQueue<>();
+        this.generation = new AtomicLong();
+        // The executor only creates its thread for the first task.
+        this.planner = Executors.newSingleThreadExecutor(Ponderer::thread);
+    }
+
+    private static Thread thread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "ponderer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    }
+
+    // MARK: - Methods
+
+    /**
+     * Starts searching our replies to all plays the opponent could make from the
+     * given position with the given dice.
+     */
+    void ponder(int[] points, int direction, ArrayList<Integer> dice) {
+        this.start();
+
+        long generation = this.generation.incrementAndGet();
+        this.queue.clear();
+        this.planner.execute(() -> this.plan(generation, points, direction, dice));
+    }
+
+    private synchronized void start() {
+        if (this.started)
+            return;
+
+        this.started = true;
+        for (int i = 0; i < THREADS; i++) {
+            thread(this::work).start();
+        }
+    }
+
+    /**
+     * Stops pondering and forgets all searched positions.
+     */
+    void clear() {
+        this.generation.incrementAndGet();
+        this.queue.clear();
+        this.entries.clear();
+    }
+
+    /**
+     * Stops pondering and returns the tree of the given position if we have searched
+     * it. No other thread touches the returned tree.
+     */
+    Entry take(int[] points, int direction, ArrayList<Integer> dice) {
+        Entry entry = this.entries.remove(Computer.key(points, direction, dice));
+        this.clear();
+
+        if (entry == null)
+            return null;
+
+        // Wait for the worker to finish its chunk on this tree.
+        synchronized (entry) {
+            entry.taken = true;
+        }
+        return entry;
+    }
+
+    /**
+     * Figures out which positions may come up after the opponent plays and queues
+     * them for search. Positions that are still reachable keep their trees.
+     */
+    private void plan(long generation, int[] points, int direction, ArrayList<Integer> dice) {
+        HashSet<String> keys = new HashSet<>();
+
+        for (ArrayList<Computer.Move> play : Computer.allPlaysFromDice(points, direction, dice)) {
+            int[] board = points;
+            for (Computer.Move move : play) {
+                board = Game.move(board, move.start, move.end);
+            }
+
+            if (Game.getState(board) != Game.State.IN_PROGRESS)
+                continue;
+
+            for (ArrayList<Integer> roll : ROLLS) {
+                if (this.generation.get() != generation)
+                    return;
+
+                String key = Computer.key(board, -1 * direction, roll);
+                if (!keys.add(key))
+                    continue;
+
+                Entry entry = this.entries.get(key);
+                if (entry == null) {
+                    if (this.entries.size() >= MAX_ENTRIES || this.isOverBudget())
+                        continue;
+
+                    entry = new Entry(board, -1 * direction, roll, generation);
+                    this.entries.put(key, entry);
+                }
+
+                entry.generation = generation;
+                this.queue.offer(entry);
+            }
+        }
+
+        // Forget positions that can't come up anymore.
+        this.entries.keySet().retainAll(keys);
+    }
+
+    /**
+     * Takes positions from the queue and searches each of them a bit before putting
+     * it back to the end of the queue.
+     */
+    private void work() {
+        while (true) {
+            Entry entry;
+            try {
+                entry = this.queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            synchronized (entry) {
+                if (entry.taken || entry.generation != this.generation.get() || this.isOverBudget())
+                    continue;
+
+                int to = Math.min(entry.iterations + CHUNK, this.settings.iterations);
+                Computer.search(entry.tree, this.settings, entry.points, entry.direction, entry.iterations, to);
+                entry.iterations = to;
+
+                if (entry.iterations < this.settings.iterations)
+                    this.queue.offer(entry);
+            }
+        }
+    }
+
+    /**
+     * Tells whether the pondering has used up its share of memory.
+     */
+    private boolean isOverBudget() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+
+        return used > MEMORY_BUDGET * runtime.maxMemory();
+    }
+}
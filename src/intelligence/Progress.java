@@ -0,0 +1,66 @@
+package intelligence;
+
+import java.util.ArrayList;
+
+/**
+ * Progress is a snapshot of a search that is still running.
+ */
+public class Progress {
+
+    /**
+     * Number of candidate plays a snapshot lists.
+     */
+    public static final int CANDIDATES = 3;
+
+    /**
+     * A play the search is considering.
+     */
+    public static class Candidate {
+        public final ArrayList<Computer.Move> moves;
+
+        /**
+         * Share of the searched games that went through this play, the share of them
+         * the player won and their number.
+         */
+        public final double share;
+        public final double win;
+        public final int visits;
+
+        Candidate(ArrayList<Computer.Move> moves, int wins, int visits, int total) {
+            this.moves = moves;
+            this.share = total == 0 ? 0 : (double) visits / total;
+            this.win = visits == 0 ? 0 : (double) wins / visits;
+            this.visits = visits;
+        }
+    }
+
+    /**
+     * Iterations made so far and the nanoseconds they took.
+     */
+    public final int iterations;
+    public final long time;
+
+    /**
+     * The most visited moves so far, the share of their games that the player won
+     * and the number of those games.
+     */
+    public final ArrayList<Computer.Move> moves;
+    public final double win;
+    public final int visits;
+
+    /**
+     * The most visited plays, most visited first. The first one is the play above.
+     */
+    public final ArrayList<Candidate> candidates;
+
+    Progress(int iterations, long time, ArrayList<Candidate> candidates) {
+        Candidate leader = candidates.get(0);
+
+        this.iterations = iterations;
+        this.time = time;
+        this.moves = leader.moves;
+        this.win = leader.win;
+        this.visits = leader.visits;
+        this.candidates = candidates;
+    }
+}
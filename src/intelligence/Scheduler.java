@@ -0,0 +1,235 @@
+package intelligence;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import model.Game;
+
+/**
+ * Scheduler runs the decisions of many sessions (games, windows, connections) on
+ * a fixed number of threads.
+ * <p>
+ * Every session has its own queue and the threads take requests from the
+ * sessions in turns, so a session that asks a lot can't starve the others. Every
+ * request has a deadline and its search stops when the deadline passes. When
+ * more requests wait than there are threads, searches get a share of their usual
+ * iterations, so answers get weaker under load instead of later.
+ */
+public class Scheduler {
+
+    /**
+     * Searches never get fewer iterations than this, even under heavy load or
+     * after their deadline.
+     */
+    static final int MIN_ITERATIONS = 100;
+
+    // MARK: - Request
+
+    private static class Request {
+        final int[] points;
+        final int direction;
+        final ArrayList<Integer> dice;
+
+        /**
+         * System.nanoTime by which the answer has to be ready.
+         */
+        final long deadline;
+
+        final CompletableFuture<Play> future;
+
+        Request(int[] points, int direction, ArrayList<Integer> dice, long deadline) {
+            this.points = points;
+            this.direction = direction;
+            this.dice = dice;
+            this.deadline = deadline;
+            this.future = new CompletableFuture<>();
+        }
+    }
+
+    // MARK: - State
+
+    private final Settings settings;
+    private final Computer computer;
+    private final Thread[] threads;
+
+    /**
+     * Waiting requests of every session and the sessions with waiting requests in
+     * the order in which they get served.
+     */
+    private final HashMap<Object, ArrayDeque<Request>> queues;
+    private final ArrayDeque<Object> ring;
+
+    private int pending;
+    private int running;
+    private boolean shutdown;
+
+    /**
+     * Number of requests that were picked up after their deadline.
+     */
+    private long late;
+
+    // MARK: - Constructor
+
+    public Scheduler(int threads, Settings settings, EvaluationCache cache) {
+        this.settings = settings;
+        this.computer = new Computer(Runnable::run, settings, cache);
+        this.queues = new HashMap<>();
+        this.ring = new ArrayDeque<>();
+
+        this.threads = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            this.threads[i] = new Thread(this::work, "scheduler-" + i);
+            this.threads[i].setDaemon(true);
+            this.threads[i].start();
+        }
+    }
+
+    // MARK: - Methods
+
+    /**
+     * Asks for a decision on behalf of a session that has to be ready within the
+     * given number of milliseconds.
+     */
+    public CompletableFuture<Play> submit(Object session, int[] points, int direction, ArrayList<Integer> dice,
+                                          long timeout) {
+        Request request = new Request(Game.clonePoints(points), direction, new ArrayList<>(dice),
+                System.nanoTime() + timeout * 1_000_000);
+
+        synchronized (this) {
+            if (this.shutdown)
+                throw new RejectedExecutionException("Scheduler is shut down.");
+
+            ArrayDeque<Request> queue = this.queues.get(session);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                this.queues.put(session, queue);
+                this.ring.add(session);
+            }
+            queue.add(request);
+            this.pending++;
+
+            this.notify();
+        }
+
+        return request.future;
+    }
+
+    /**
+     * Stops the threads. Waiting requests are cancelled.
+     */
+    public synchronized void shutdown() {
+        this.shutdown = true;
+
+        for (ArrayDeque<Request> queue : this.queues.values()) {
+            for (Request request : queue) {
+                request.future.cancel(false);
+            }
+        }
+        this.queues.clear();
+        this.ring.clear();
+        this.pending = 0;
+
+        this.notifyAll();
+    }
+
+    /**
+     * Number of requests that wait for a thread.
+     */
+    public synchronized int getPending() {
+        return this.pending;
+    }
+
+    public synchronized long getLate() {
+        return this.late;
+    }
+
+    // MARK: - Workers
+
+    private void work() {
+        while (true) {
+            Request request;
+            int iterations;
+
+            synchronized (this) {
+                request = this.take();
+                if (request == null)
+                    return;
+
+                iterations = this.budget();
+                this.running++;
+            }
+
+            try {
+                if (!request.future.isDone())
+                    request.future.complete(this.decide(request, iterations));
+            } catch (RuntimeException e) {
+                request.future.completeExceptionally(e);
+            } finally {
+                synchronized (this) {
+                    this.running--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for the next request, taking them from the sessions in turns. Returns
+     * null once the scheduler is shut down.
+     */
+    private Request take() {
+        while (this.ring.isEmpty()) {
+            if (this.shutdown)
+                return null;
+
+            try {
+                this.wait();
+            } catch (InterruptedException e) {
+                return null;
+            }
+        }
+
+        Object session = this.ring.poll();
+        ArrayDeque<Request> queue = this.queues.get(session);
+        Request request = queue.poll();
+
+        // The session waits at the end of the line for its next request.
+        if (queue.isEmpty())
+            this.queues.remove(session);
+        else
+            this.ring.add(session);
+
+        this.pending--;
+        return request;
+    }
+
+    /**
+     * Tells how many iterations a search may make now. When more searches want to
+     * run than there are threads, each of them gets its share.
+     */
+    private int budget() {
+        int load = this.pending + this.running + 1;
+        double share = Math.min(1, (double) this.threads.length / load);
+
+        return Math.max(MIN_ITERATIONS, (int) (share * this.settings.iterations));
+    }
+
+    private Play decide(Request request, int iterations) {
+        long remaining = (request.deadline - System.nanoTime()) / 1_000_000;
+
+        Limits limits;
+        if (remaining <= 0) {
+            // We are late already, so we answer as fast as we can.
+            synchronized (this) {
+                this.late++;
+            }
+            limits = new Limits(MIN_ITERATIONS, 0);
+        } else {
+            limits = new Limits(iterations, remaining);
+        }
+
+        return this.computer.decide(request.points, request.direction, request.dice, limits, null);
+    }
+}
@@ -0,0 +1,18 @@
+package intelligence;
+
+/**
+ * State shared by all nodes of a search tree.
+ */
+class Search {
+    final Settings settings;
+
+    /**
+     * All-moves-as-first statistics of the tree.
+     */
+    final Amaf amaf;
+
+    Search(Settings settings) {
+        this.settings = settings;
+        this.amaf = new Amaf();
+    }
+}
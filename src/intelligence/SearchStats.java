@@ -0,0 +1,170 @@
+package intelligence;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statistics of a single decision that Computer made. They are returned together
+ * with the decision and collected in EngineStats.
+ */
+public class SearchStats {
+
+    // MARK: - State
+
+    /**
+     * Iterations made for this decision, not counting the ones made while pondering.
+     */
+    public final int iterations;
+
+    /**
+     * Iterations that had been made while pondering before the decision started.
+     */
+    public final int pondered;
+
+    /**
+     * Number of rollouts (random games) played during the search.
+     */
+    public final int rollouts;
+
+    /**
+     * Number of nodes in the tree and how deep they go.
+     */
+    public final int nodes;
+    public final int maxDepth;
+    public final double averageDepth;
+
+    /**
+     * The sequence of most visited moves from the root down the tree.
+     */
+    public final List<ArrayList<Computer.Move>> principalVariation;
+
+    /**
+     * Number of visits of each child of the root and the moves that lead to them.
+     */
+    public final List<ArrayList<Computer.Move>> rootMoves;
+    public final int[] rootVisits;
+
+    /**
+     * Variance of the win rate of the chosen move as measured by batch means, and
+     * the variance independent games with the same win rate would have.
+     */
+    public final double variance;
+    public final double binomialVariance;
+
+    /**
+     * Time spent generating the root moves, searching and picking the move in
+     * nanoseconds.
+     */
+    public final long generationTime;
+    public final long searchTime;
+    public final long selectionTime;
+
+    /**
+     * Bytes allocated by the searching thread, or -1 when the JVM can't tell. It
+     * can't for virtual threads, which Computer.defaultExecutor uses unless the
+     * backgammon.allocations system property is set.
+     */
+    public final long allocatedBytes;
+
+    // MARK: - Constructor
+
+    SearchStats(Computer.Node tree, int iterations, int pondered, int rollouts, long generationTime,
+                long searchTime, long selectionTime, long allocatedBytes) {
+        this.iterations = iterations;
+        this.pondered = pondered;
+        this.rollouts = rollouts;
+        this.generationTime = generationTime;
+        this.searchTime = searchTime;
+        this.selectionTime = selectionTime;
+        this.allocatedBytes = allocatedBytes;
+
+        // Walk the tree to measure it.
+        int[] measures = new int[3];
+        measure(tree, 0, measures);
+        this.nodes = measures[0];
+        this.maxDepth = measures[1];
+        this.averageDepth = (double) measures[2] / measures[0];
+
+        // Follow the most visited children.
+        this.principalVariation = new ArrayList<>();
+        for (Computer.Node node = tree; !node.getChildren().isEmpty(); ) {
+            node = node.mostVisited();
+            this.principalVariation.add(node.getMoves());
+        }
+
+        if (tree.getChildren().isEmpty()) {
+            this.variance = Double.NaN;
+            this.binomialVariance = Double.NaN;
+        } else {
+            Computer.Node best = tree.mostVisited();
+            double win = (double) best.getWins() / best.getAll();
+            this.variance = best.variance();
+            this.binomialVariance = win * (1 - win) / best.getAll();
+        }
+
+        this.rootMoves = new ArrayList<>();
+        this.rootVisits = new int[tree.getChildren().size()];
+        int i = 0;
+        for (Computer.Node child : tree.getChildren()) {
+            this.rootMoves.add(child.getMoves());
+            this.rootVisits[i++] = child.getAll();
+        }
+    }
+
+    /**
+     * Counts the nodes, the deepest level and the sum of depths under a node.
+     */
+    private static void measure(Computer.Node node, int depth, int[] measures) {
+        measures[0]++;
+        measures[1] = Math.max(measures[1], depth);
+        measures[2] += depth;
+
+        for (Computer.Node child : node.getChildren()) {
+            measure(child, depth + 1, measures);
+        }
+    }
+
+    // MARK: - Accessors
+
+    public double iterationsPerSecond() {
+        return perSecond(this.iterations, this.searchTime);
+    }
+
+    public double rolloutsPerSecond() {
+        return perSecond(this.rollouts, this.searchTime);
+    }
+
+    private static double perSecond(int count, long nanos) {
+        if (nanos == 0)
+            return 0;
+        return count * 1e9 / nanos;
+    }
+
+    /**
+     * Returns the number of bytes the current thread has allocated so far, or -1 if
+     * the JVM doesn't support measuring it, as for virtual threads.
+     */
+    static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return -1;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled())
+            return -1;
+
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d iterations (%d pondered), %.0f it/s, %.0f rollouts/s, %d nodes, depth %d/%.1f, "
+                        + "variance %.2e (binomial %.2e), generation %.1f ms, search %.1f ms, selection %.1f ms, "
+                        + "%d bytes, pv %s",
+                this.iterations, this.pondered, this.iterationsPerSecond(), this.rolloutsPerSecond(), this.nodes,
+                this.maxDepth, this.averageDepth, this.variance, this.binomialVariance, this.generationTime / 1e6,
+                this.searchTime / 1e6, this.selectionTime / 1e6, this.allocatedBytes, this.principalVariation);
+    }
+}
@@ -0,0 +1,112 @@
+package intelligence;
+
+import java.util.Locale;
+
+/**
+ * Settings tell how hard and in what way Computer searches.
+ */
+public class Settings {
+
+    /**
+     * How the value of a leaf is estimated.
+     */
+    public enum Evaluator {
+        /**
+         * Play a random game until the end.
+         */
+        ROLLOUT,
+        /**
+         * Play a random game for RACE_PLIES plies and let the player with the lower
+         * pip count win.
+         */
+        RACE
+    }
+
+    /**
+     * Number of plies a RACE rollout plays before counting the pips.
+     */
+    public static final int RACE_PLIES = 16;
+
+    public static final Settings DEFAULT = new Settings(10000, 2, 300, Evaluator.ROLLOUT);
+
+    // MARK: - State
+
+    /**
+     * How many searches down the game tree should Computer make.
+     */
+    public final int iterations;
+
+    /**
+     * Exploration constant of UCT.
+     */
+    public final double exploration;
+
+    /**
+     * Number of visits at which a node's own value and its all-moves-as-first value
+     * weigh the same. Zero turns all-moves-as-first off.
+     */
+    public final double raveEquivalence;
+
+    public final Evaluator evaluator;
+
+    // MARK: - Constructor
+
+    public Settings(int iterations, double exploration, double raveEquivalence, Evaluator evaluator) {
+        if (iterations < 1)
+            throw new IllegalArgumentException("Computer needs at least one iteration.");
+
+        this.iterations = iterations;
+        this.exploration = exploration;
+        this.raveEquivalence = raveEquivalence;
+        this.evaluator = evaluator;
+    }
+
+    // MARK: - Methods
+
+    /**
+     * Parses settings written as comma separated key=value pairs, for example
+     * "iterations=2000,c=1.4,rave=0,evaluator=race". Missing keys keep the default
+     * values.
+     */
+    public static Settings parse(String text) {
+        int iterations = DEFAULT.iterations;
+        double exploration = DEFAULT.exploration;
+        double raveEquivalence = DEFAULT.raveEquivalence;
+        Evaluator evaluator = DEFAULT.evaluator;
+
+        for (String pair : text.split(",")) {
+            if (pair.isBlank())
+                continue;
+
+            String[] parts = pair.split("=", 2);
+            if (parts.length != 2)
+                throw new IllegalArgumentException("Expected key=value: " + pair);
+
+            String value = parts[1].trim();
+            switch (parts[0].trim()) {
+                case "iterations":
+                    iterations = Integer.parseInt(value);
+                    break;
+                case "c":
+                    exploration = Double.parseDouble(value);
+                    break;
+                case "rave":
+                    raveEquivalence = Double.parseDouble(value);
+                    break;
+                case "evaluator":
+                    evaluator = Evaluator.valueOf(value.toUpperCase(Locale.ROOT));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown setting: " + parts[0]);
+            }
+        }
+
+        return new Settings(iterations, exploration, raveEquivalence, evaluator);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "iterations=%d,c=%s,rave=%s,evaluator=%s", this.iterations,
+                this.exploration, this.raveEquivalence, this.evaluator.name().toLowerCase(Locale.ROOT));
+    }
+}
@@ -32,16 +32,42 @@ public class Game {
      */
     private LinkedList<int[]> rounds;
 
+    /**
+     * Turns played so far, which we keep to record the game.
+     */
+    private ArrayList<GameRecord.Turn> history;
+
+    /**
+     * Dice as rolled at the start of the current turn and the moves made with them.
+     */
+    private int[] rolled;
+    private ArrayList<Integer> played;
+
     /**
      * Tells the order of the players by direction (i.e. positive negative).
      */
     private final int[] turns;
 
+    /**
+     * Source of the dice.
+     */
+    private final Random random;
+
     // MARK: - Constructors
 
     public Game() {
+        this(new Random());
+    }
+
+    /**
+     * Creates a game that rolls the dice from the given source. Two games with
+     * equally seeded sources get the same dice.
+     */
+    public Game(Random random) {
+        this.random = random;
         this.points = new int[]{0, 2, 0, 0, 0, 0, -5, 0, -3, 0, 0, 0, 5, -5, 0, 0, 0, 3, 0, 5, 0, 0, 0, 0, -2, 0};
         this.rounds = new LinkedList<>();
+        this.history = new ArrayList<>();
         this.turns = new int[]{-1, 1};
         this.dice = new ArrayList<>();
 
@@ -105,6 +131,21 @@ public class Game {
         return getState(this.points);
     }
 
+    /**
+     * Returns a record of the turns played so far, including the moves of the
+     * current turn. Turns that were undone aren't part of it.
+     */
+    public GameRecord record() {
+        ArrayList<GameRecord.Turn> turns = new ArrayList<>(this.history);
+        if (!this.played.isEmpty())
+            turns.add(this.currentTurn());
+
+        State state = this.getState();
+        int winner = state == State.WIN_BLACK ? 1 : state == State.WIN_WHITE ? -1 : 0;
+
+        return new GameRecord(System.currentTimeMillis() / 1000, this.turns[0], winner, turns);
+    }
+
     /**
      * Tells the direction of the player that is currently playing.
      */
@@ -183,15 +224,36 @@ public class Game {
         return points[start] * points[end] >= 0;
     }
 
+    /**
+     * Returns how many pips the player in a given direction still has to move.
+     */
+    public static int getPips(int[] points, int direction) {
+        int pips = 0;
+        for (int i = 0; i < 26; i++) {
+            int checkers = points[i] * direction;
+            if (checkers > 0)
+                pips += checkers * (direction == 1 ? 25 - i : i);
+        }
+        return pips;
+    }
+
     /**
      * Returns a 26-items long list telling how many moves there are from each
      * field.
      */
     public int[] getMovableCheckers() {
+        return getMovableCheckers(this.points, this.getTurn(), this.dice);
+    }
+
+    /**
+     * Returns a 26-items long list telling how many moves the player has from each
+     * field with the given dice.
+     */
+    public static int[] getMovableCheckers(int[] points, int player, ArrayList<Integer> dice) {
         int[] movables = new int[26];
 
         for (int i = 0; i < movables.length; i++) {
-            movables[i] = getMoves(i).size();
+            movables[i] = getMoves(points, player, dice, i).size();
         }
 
         return movables;
@@ -353,13 +415,16 @@ public class Game {
      */
     private void roll() {
         this.dice = new ArrayList<>();
+        this.played = new ArrayList<>();
 
         // Roll the dice.
         for (int i = 0; i < 2; i++) {
             // this.dice.add(6);
-            this.dice.add((int) Math.ceil(Math.random() * 6));
+            this.dice.add(this.random.nextInt(6) + 1);
         }
 
+        this.rolled = new int[]{this.dice.get(0), this.dice.get(1)};
+
         // Double the points on combo.
         if (this.dice.get(0).equals(this.dice.get(1))) {
             int val = this.dice.get(0);
@@ -369,6 +434,17 @@ public class Game {
         }
     }
 
+    /**
+     * Returns the current turn as it should be recorded.
+     */
+    private GameRecord.Turn currentTurn() {
+        int[] moves = new int[this.played.size()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = this.played.get(i);
+        }
+        return new GameRecord.Turn(this.rolled[0], this.rolled[1], moves);
+    }
+
     /**
      * Performs a given move and returns a board.
      */
@@ -403,6 +479,23 @@ public class Game {
         return board;
     }
 
+    /**
+     * Returns the dice that remain after making a given move.
+     */
+    public static ArrayList<Integer> useDie(ArrayList<Integer> dice, int start, int end) {
+        ArrayList<Integer> remaining = new ArrayList<>(dice);
+
+        Integer die = Math.abs(end - start);
+        if (!remaining.remove(die)) {
+            // Remove the largest die since we took the checker off the board
+            // which was closer than our dice.
+            Integer maximum = Collections.max(remaining);
+            remaining.remove(maximum);
+        }
+
+        return remaining;
+    }
+
     /**
      * Performs a move on a board, takes out the used die and pushes previous points
      * to round.
@@ -412,17 +505,14 @@ public class Game {
             return;
 
         // Update the dice.
-        Integer die = Math.abs(end - start);
-        if (!this.dice.remove(die)) {
-            // Remove the largest die since we took the checker off the board
-            // which was closer than our dice.
-            Integer maximum = Collections.max(this.dice);
-            this.dice.remove(maximum);
-        }
+        this.dice = useDie(this.dice, start, end);
+        this.played.add(start);
+        this.played.add(end);
 
         // New turn.
         if (this.dice.size() == 0) {
             this.rounds.push(Game.clonePoints(this.points));
+            this.history.add(this.currentTurn());
             this.roll();
         }
 
@@ -437,6 +527,7 @@ public class Game {
         if (moves > 0) return;
 
         this.rounds.push(this.points.clone());
+        this.history.add(this.currentTurn());
         this.roll();
     }
 
@@ -447,6 +538,7 @@ public class Game {
     public void undo() {
         if (!rounds.isEmpty()) {
             this.points = this.rounds.pop();
+            this.history.remove(this.history.size() - 1);
             roll();
         }
     }
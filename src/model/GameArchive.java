@@ -0,0 +1,541 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+
+/**
+ * GameArchive keeps recorded games in a single file that only ever grows. Games
+ * get consecutive ids from 0 in the order they are appended.
+ * <p>
+ * A game is a short header followed by one byte per turn and one per move. A
+ * turn byte packs the two dice and the number of moves, and a move byte packs
+ * the start point and how far the checker went, since the direction follows from
+ * the player on turn. A typical game takes a couple of hundred bytes.
+ * <p>
+ * A second file next to the archive keeps the offset of every game, so a game
+ * is found by its id without going through the games before it. A Reader maps
+ * both files into memory and walks the games in place without creating objects.
+ * <p>
+ * Several processes may share an archive. Everything that looks at the end of the
+ * archive or changes it holds an exclusive lock on the file, so processes append
+ * one after another and never cut off a game that is still being written.
+ */
+public class GameArchive {
+
+    /**
+     * Identifies the file format.
+     */
+    private static final int MAGIC = 0x42474741;
+    private static final int VERSION = 1;
+
+    private static final int HEADER = 8;
+
+    /**
+     * Layout of a game: the length of the rest, the time, the players and the
+     * number of turns, followed by the turns.
+     */
+    private static final int LENGTH = 2;
+    private static final int TIME = 2;
+    private static final int PLAYERS = 6;
+    private static final int TURNS = 7;
+    private static final int BODY = 9;
+
+    /**
+     * Most bytes a game may take.
+     */
+    private static final int MAX_GAME = LENGTH + 0xffff;
+
+    /**
+     * Bytes of an index entry, which is the offset of a game.
+     */
+    private static final int ENTRY = 8;
+
+    /**
+     * Files are mapped in windows of this size. Archive windows reach a game into
+     * the next one, so every game lies whole in the window it starts in.
+     */
+    private static final long WINDOW = 1L << 30;
+
+    private static GameArchive shared;
+    private static boolean opened;
+
+    // MARK: - State
+
+    private final FileChannel games;
+    private final FileChannel index;
+
+    /**
+     * Length of the archive and the number of games in it when we last looked.
+     * Other processes may have appended games since.
+     */
+    private long size;
+    private long count;
+
+    // MARK: - Constructor
+
+    /**
+     * Opens the archive in the given file or creates it there. The index goes in a
+     * file with the same name and ".index" appended. A game that was only partly
+     * written is dropped and a short index is completed. A process should only
+     * open an archive once, which shared does.
+     */
+    public GameArchive(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null)
+            parent.mkdirs();
+
+        // The channels stay open as long as the archive.
+        this.games = new RandomAccessFile(file, "rw").getChannel();
+        this.index = new RandomAccessFile(new File(file.getPath() + ".index"), "rw").getChannel();
+
+        FileLock lock = this.games.lock();
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            if (this.games.size() == 0) {
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                this.games.write(header, 0);
+                this.index.truncate(0);
+            } else {
+                this.games.read(header, 0);
+                if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+                    throw new IOException("Not a game archive: " + file);
+            }
+
+            this.recover();
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Returns the archive in the user's home directory that games are recorded in,
+     * or null if it can't be opened. The file may be moved with the
+     * backgammon.games system property.
+     */
+    public static synchronized GameArchive shared() {
+        if (!opened) {
+            opened = true;
+
+            String home = System.getProperty("user.home");
+            String path = System.getProperty("backgammon.games", home + "/.backgammon/games.bin");
+            try {
+                shared = new GameArchive(new File(path));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Game archive is off: " + e);
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Catches up with the games other processes appended.
+     */
+    private void refresh() throws IOException {
+        FileLock lock = this.games.lock();
+        try {
+            this.recover();
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Brings the archive and the index in line after a crash and reads how far
+     * they go. Games are written before their index entries, so the index may only
+     * lack the last few. It must be called with the archive locked.
+     */
+    private void recover() throws IOException {
+        long length = this.games.size();
+        long entries = this.index.size() / ENTRY;
+
+        // Find the last indexed game that was written completely.
+        long offset = HEADER;
+        while (entries > 0) {
+            long end = this.end(this.entry(entries - 1), length);
+            if (end > 0) {
+                offset = end;
+                break;
+            }
+            entries--;
+        }
+        this.index.truncate(entries * ENTRY);
+
+        // Index the games after it.
+        long end;
+        while ((end = this.end(offset, length)) > 0) {
+            this.write(entries++, offset);
+            offset = end;
+        }
+
+        // Whatever follows is a game we didn't finish writing.
+        this.games.truncate(offset);
+
+        this.size = offset;
+        this.count = entries;
+    }
+
+    /**
+     * Returns where the game at the given offset ends, or 0 if it doesn't lie
+     * whole in the given length of the archive.
+     */
+    private long end(long offset, long length) throws IOException {
+        if (offset < HEADER || offset + LENGTH > length)
+            return 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        this.games.read(buffer, offset);
+
+        long end = offset + LENGTH + (buffer.getShort(0) & 0xffff);
+        return end <= length ? end : 0;
+    }
+
+    private long entry(long id) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRY).order(ByteOrder.LITTLE_ENDIAN);
+        this.index.read(buffer, id * ENTRY);
+        return buffer.getLong(0);
+    }
+
+    private void write(long id, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRY).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(0, offset);
+        this.index.write(buffer, id * ENTRY);
+    }
+
+    // MARK: - Methods
+
+    /**
+     * Appends a game to the archive and returns its id.
+     */
+    public synchronized long append(GameRecord record) throws IOException {
+        ByteBuffer game = encode(record);
+        int length = game.remaining();
+
+        FileLock lock = this.games.lock();
+        try {
+            // Other processes may have appended games since we last looked.
+            this.recover();
+
+            // The game goes first, so the index never points past the archive.
+            this.games.write(game, this.size);
+            this.write(this.count, this.size);
+
+            this.size += length;
+            return this.count++;
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Returns the number of games in the archive.
+     */
+    public synchronized long count() throws IOException {
+        this.refresh();
+        return this.count;
+    }
+
+    /**
+     * Reads the game with the given id.
+     */
+    public GameRecord get(long id) throws IOException {
+        if (id < 0 || id >= this.count())
+            throw new IndexOutOfBoundsException("No game with id " + id + ".");
+
+        long offset = this.entry(id);
+        long end = this.end(offset, Long.MAX_VALUE);
+
+        ByteBuffer game = ByteBuffer.allocate((int) (end - offset)).order(ByteOrder.LITTLE_ENDIAN);
+        this.games.read(game, offset);
+        return decode(game, 0);
+    }
+
+    /**
+     * Returns a reader of the games in the archive at the moment. Games appended
+     * later aren't visible to it.
+     */
+    public synchronized Reader reader() throws IOException {
+        this.refresh();
+        return new Reader(map(this.games, this.size, MAX_GAME), map(this.index, this.count * ENTRY, 0), this.count);
+    }
+
+    /**
+     * Maps the first given bytes of a file in windows that each reach the given
+     * number of bytes into the next one.
+     */
+    private static ByteBuffer[] map(FileChannel channel, long length, int overlap) throws IOException {
+        int windows = (int) ((length + WINDOW - 1) / WINDOW);
+        ByteBuffer[] buffers = new ByteBuffer[windows];
+
+        for (int i = 0; i < windows; i++) {
+            long start = i * WINDOW;
+            long size = Math.min(length - start, WINDOW + overlap);
+
+            buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return buffers;
+    }
+
+    // MARK: - Format
+
+    /**
+     * Writes a game in the archive's format.
+     */
+    static ByteBuffer encode(GameRecord record) {
+        int length = BODY;
+        for (GameRecord.Turn turn : record.turns) {
+            length += 1 + turn.size();
+        }
+
+        if (length > MAX_GAME)
+            throw new IllegalArgumentException("Game is too long to be archived.");
+
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort((short) (length - LENGTH));
+        buffer.putInt((int) record.time);
+        buffer.put((byte) (player(record.winner) << 2 | player(record.first)));
+        buffer.putShort((short) record.turns.size());
+
+        for (int i = 0; i < record.turns.size(); i++) {
+            GameRecord.Turn turn = record.turns.get(i);
+            int direction = record.player(i);
+
+            // There are 36 rolls and up to four moves.
+            int roll = (turn.first - 1) * 6 + (turn.second - 1);
+            buffer.put((byte) (roll * 5 + turn.size()));
+
+            for (int j = 0; j < turn.size(); j++) {
+                int start = turn.start(j);
+                int distance = (turn.end(j) - start) * direction;
+                if (start < 0 || start > 25 || distance < 1 || distance > 6)
+                    throw new IllegalArgumentException("Not a move of the player on turn: " + start + "/" + turn.end(j));
+
+                buffer.put((byte) (start << 3 | distance));
+            }
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Reads the game that starts at the given index of the buffer.
+     */
+    private static GameRecord decode(ByteBuffer buffer, int start) {
+        int end = start + LENGTH + (buffer.getShort(start) & 0xffff);
+        long time = buffer.getInt(start + TIME) & 0xffffffffL;
+        int players = buffer.get(start + PLAYERS);
+        int first = direction(players & 3);
+        int winner = direction(players >> 2 & 3);
+
+        ArrayList<GameRecord.Turn> turns = new ArrayList<>(buffer.getShort(start + TURNS) & 0xffff);
+        int direction = first;
+
+        for (int position = start + BODY; position < end; direction = -direction) {
+            int value = buffer.get(position++) & 0xff;
+            int roll = value / 5;
+
+            int[] moves = new int[2 * (value % 5)];
+            for (int j = 0; j < moves.length; j += 2) {
+                int move = buffer.get(position++) & 0xff;
+                moves[j] = move >>> 3;
+                moves[j + 1] = (move >>> 3) + direction * (move & 7);
+            }
+
+            turns.add(new GameRecord.Turn(roll / 6 + 1, roll % 6 + 1, moves));
+        }
+
+        return new GameRecord(time, first, winner, turns);
+    }
+
+    /**
+     * Packs a player in two bits: 1 is black, 2 is white and 0 nobody.
+     */
+    private static int player(int direction) {
+        return direction == 1 ? 1 : direction == -1 ? 2 : 0;
+    }
+
+    private static int direction(int player) {
+        return player == 1 ? 1 : player == 2 ? -1 : 0;
+    }
+
+    // MARK: - Reader
+
+    /**
+     * Reader walks through the games of an archive straight from the mapped files.
+     * It points at a game and at one of its turns and answers questions about them
+     * without creating objects. A reader must not be shared between threads.
+     */
+    public static class Reader {
+        private final ByteBuffer[] games;
+        private final ByteBuffer[] index;
+        private final long count;
+
+        /**
+         * The current game: its id, where it starts in the archive, the window it is in
+         * and where it starts and ends there.
+         */
+        private long id;
+        private long offset;
+        private ByteBuffer game;
+        private int start;
+        private int end;
+
+        /**
+         * The current turn: its number, where it starts and where the next one starts.
+         */
+        private int turn;
+        private int position;
+        private int next;
+
+        private Reader(ByteBuffer[] games, ByteBuffer[] index, long count) {
+            this.games = games;
+            this.index = index;
+            this.count = count;
+            this.id = -1;
+        }
+
+        /**
+         * Returns the number of games the reader sees.
+         */
+        public long count() {
+            return this.count;
+        }
+
+        // MARK: - Games
+
+        /**
+         * Moves to the next game and tells whether there was one.
+         */
+        public boolean next() {
+            if (this.id + 1 >= this.count)
+                return false;
+
+            long offset = this.id < 0 ? HEADER : this.offset + (this.end - this.start);
+            this.open(this.id + 1, offset);
+            return true;
+        }
+
+        /**
+         * Moves to the game with the given id. The next game is the one after it.
+         */
+        public void seek(long id) {
+            if (id < 0 || id >= this.count)
+                throw new IndexOutOfBoundsException("No game with id " + id + ".");
+
+            long entry = id * ENTRY;
+            this.open(id, this.index[(int) (entry / WINDOW)].getLong((int) (entry % WINDOW)));
+        }
+
+        private void open(long id, long offset) {
+            this.id = id;
+            this.offset = offset;
+            this.game = this.games[(int) (offset / WINDOW)];
+            this.start = (int) (offset % WINDOW);
+            this.end = this.start + LENGTH + (this.game.getShort(this.start) & 0xffff);
+
+            this.turn = -1;
+            this.next = this.start + BODY;
+        }
+
+        public long id() {
+            return this.id;
+        }
+
+        /**
+         * Seconds since the epoch when the game was recorded.
+         */
+        public long time() {
+            return this.game.getInt(this.start + TIME) & 0xffffffffL;
+        }
+
+        /**
+         * Direction of the player that made the first turn.
+         */
+        public int first() {
+            return direction(this.game.get(this.start + PLAYERS) & 3);
+        }
+
+        /**
+         * Direction of the player that won, or 0 if the game wasn't finished.
+         */
+        public int winner() {
+            return direction(this.game.get(this.start + PLAYERS) >> 2 & 3);
+        }
+
+        /**
+         * Returns the number of turns in the game.
+         */
+        public int turns() {
+            return this.game.getShort(this.start + TURNS) & 0xffff;
+        }
+
+        /**
+         * Reads the whole current game into a record.
+         */
+        public GameRecord record() {
+            return decode(this.game, this.start);
+        }
+
+        // MARK: - Turns
+
+        /**
+         * Moves to the next turn of the current game and tells whether there was one.
+         */
+        public boolean nextTurn() {
+            if (this.next >= this.end)
+                return false;
+
+            this.turn++;
+            this.position = this.next;
+            this.next = this.position + 1 + this.moves();
+            return true;
+        }
+
+        /**
+         * Tells the direction of the player on the current turn.
+         */
+        public int player() {
+            return this.turn % 2 == 0 ? this.first() : -this.first();
+        }
+
+        /**
+         * Returns the dice of the current turn in the order they were rolled.
+         */
+        public int firstDie() {
+            return this.value() / 5 / 6 + 1;
+        }
+
+        public int secondDie() {
+            return this.value() / 5 % 6 + 1;
+        }
+
+        /**
+         * Returns the number of moves made in the current turn.
+         */
+        public int moves() {
+            return this.value() % 5;
+        }
+
+        /**
+         * Returns the start and the end point of a move of the current turn.
+         */
+        public int start(int move) {
+            return (this.game.get(this.position + 1 + move) & 0xff) >>> 3;
+        }
+
+        public int end(int move) {
+            int value = this.game.get(this.position + 1 + move) & 0xff;
+            return (value >>> 3) + this.player() * (value & 7);
+        }
+
+        private int value() {
+            return this.game.get(this.position) & 0xff;
+        }
+    }
+}
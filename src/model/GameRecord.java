@@ -0,0 +1,100 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * GameRecord is everything needed to replay a game from the starting position:
+ * who started, the dice of every turn and the moves made with them. GameArchive
+ * stores records in a compact binary form.
+ */
+public class GameRecord {
+
+    // MARK: - Turn
+
+    /**
+     * A single turn of a game.
+     */
+    public static class Turn {
+
+        /**
+         * The dice in the order they were rolled. Doubles are only listed once.
+         */
+        public final int first;
+        public final int second;
+
+        /**
+         * Start and end points of the moves, one pair after another.
+         */
+        private final int[] moves;
+
+        public Turn(int first, int second, int[] moves) {
+            if (first < 1 || first > 6 || second < 1 || second > 6)
+                throw new IllegalArgumentException("Dice go from 1 to 6.");
+            if (moves.length % 2 != 0 || moves.length > 8)
+                throw new IllegalArgumentException("A turn has at most four moves.");
+
+            this.first = first;
+            this.second = second;
+            this.moves = moves.clone();
+        }
+
+        /**
+         * Returns the number of moves made in the turn.
+         */
+        public int size() {
+            return this.moves.length / 2;
+        }
+
+        public int start(int move) {
+            return this.moves[2 * move];
+        }
+
+        public int end(int move) {
+            return this.moves[2 * move + 1];
+        }
+    }
+
+    // MARK: - State
+
+    /**
+     * Seconds since the epoch when the game was recorded.
+     */
+    public final long time;
+
+    /**
+     * Direction of the player that made the first turn.
+     */
+    public final int first;
+
+    /**
+     * Direction of the player that won, or 0 if the game wasn't finished.
+     */
+    public final int winner;
+
+    public final List<Turn> turns;
+
+    // MARK: - Constructor
+
+    public GameRecord(long time, int first, int winner, List<Turn> turns) {
+        if (first != 1 && first != -1)
+            throw new IllegalArgumentException("First player is either 1 or -1.");
+        if (winner < -1 || winner > 1)
+            throw new IllegalArgumentException("Winner is 1, -1 or 0.");
+
+        this.time = time;
+        this.first = first;
+        this.winner = winner;
+        this.turns = Collections.unmodifiableList(new ArrayList<>(turns));
+    }
+
+    // MARK: - Accessors
+
+    /**
+     * Tells the direction of the player that made the given turn.
+     */
+    public int player(int turn) {
+        return turn % 2 == 0 ? this.first : -this.first;
+    }
+}
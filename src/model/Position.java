@@ -0,0 +1,157 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Position is a board together with the player on turn and the rolled dice. We
+ * use it to describe positions outside of a Game, for example in files.
+ */
+public class Position {
+
+    /**
+     * The board in the same format as Game uses.
+     */
+    public final int[] points;
+
+    /**
+     * Direction of the player on turn.
+     */
+    public final int turn;
+
+    /**
+     * Rolled dice with doubles already doubled.
+     */
+    public final ArrayList<Integer> dice;
+
+    // MARK: - Constructor
+
+    public Position(int[] points, int turn, ArrayList<Integer> dice) {
+        if (points.length != 26)
+            throw new IllegalArgumentException("A board has 26 points.");
+        if (turn != 1 && turn != -1)
+            throw new IllegalArgumentException("Turn is either 1 or -1.");
+
+        this.points = Game.clonePoints(points);
+        this.turn = turn;
+        this.dice = new ArrayList<>(dice);
+    }
+
+    // MARK: - Methods
+
+    /**
+     * Parses a position written as "points turn dice", for example
+     * "0,2,0,0,0,0,-5,0,-3,0,0,0,5,-5,0,0,0,3,0,5,0,0,0,0,-2,0 w 31". Points are the
+     * 26 values of the board separated by commas, turn is "b" or "w" (or 1 and -1)
+     * and dice are two digits. Points may also be given as a Position ID, for
+     * example "4HPwATDgc/ABMA w 31", and the whole position as an XGID.
+     */
+    public static Position parse(String line) {
+        line = line.trim();
+        if (Xgid.matches(line))
+            return Xgid.decode(line);
+
+        String[] parts = line.split("\\s+");
+        if (parts.length != 3)
+            throw new IllegalArgumentException("Expected points, turn and dice: " + line);
+
+        int turn = parseTurn(parts[1]);
+        ArrayList<Integer> dice = parseDice(parts[2]);
+
+        // Board.
+        if (!parts[0].contains(","))
+            return new Position(PositionId.decode(parts[0], turn), turn, dice);
+
+        String[] values = parts[0].split(",");
+        if (values.length != 26)
+            throw new IllegalArgumentException("Expected 26 points: " + parts[0]);
+
+        int[] points = new int[26];
+        for (int i = 0; i < 26; i++) {
+            points[i] = Integer.parseInt(values[i].trim());
+        }
+
+        return new Position(points, turn, dice);
+    }
+
+    /**
+     * Parses the player on turn written as "b" or "w" (or 1 and -1).
+     */
+    private static int parseTurn(String text) {
+        switch (text) {
+            case "b":
+            case "1":
+                return 1;
+            case "w":
+            case "-1":
+                return -1;
+            default:
+                throw new IllegalArgumentException("Unknown turn: " + text);
+        }
+    }
+
+    /**
+     * Parses two dice written as digits (e.g. "31") and doubles them on combo. "00"
+     * stands for dice that haven't been rolled yet.
+     */
+    public static ArrayList<Integer> parseDice(String text) {
+        if (text.length() != 2)
+            throw new IllegalArgumentException("Expected two dice: " + text);
+
+        ArrayList<Integer> dice = new ArrayList<>();
+        if (text.equals("00"))
+            return dice;
+
+        for (char c : text.toCharArray()) {
+            int die = c - '0';
+            if (die < 1 || die > 6)
+                throw new IllegalArgumentException("Dice go from 1 to 6: " + text);
+            dice.add(die);
+        }
+
+        // Double the points on combo.
+        if (dice.get(0).equals(dice.get(1))) {
+            dice.add(dice.get(0));
+            dice.add(dice.get(0));
+        }
+
+        return dice;
+    }
+
+    /**
+     * Returns the Position ID of the board as seen by the player on turn.
+     */
+    public String id() {
+        return PositionId.encode(this.points, this.turn);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder points = new StringBuilder();
+        for (int i = 0; i < 26; i++) {
+            if (i > 0)
+                points.append(',');
+            points.append(this.points[i]);
+        }
+
+        String turn = this.turn == 1 ? "b" : "w";
+        String dice = this.dice.isEmpty() ? "00" : "" + this.dice.get(0) + this.dice.get(1);
+
+        return points + " " + turn + " " + dice;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Position))
+            return false;
+
+        Position position = (Position) other;
+        return this.turn == position.turn && Arrays.equals(this.points, position.points)
+                && this.dice.equals(position.dice);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(this.points) + this.turn) + this.dice.hashCode();
+    }
+}
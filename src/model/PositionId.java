@@ -0,0 +1,118 @@
+package model;
+
+import java.util.Base64;
+
+/**
+ * Encodes boards as GNU Backgammon Position IDs. A Position ID packs a board into
+ * 80 bits (10 bytes), written as 14 characters of base64, so it makes a compact
+ * key for caches and files.
+ * <p>
+ * The board is described from the view of the player on roll. For the player on
+ * roll and then for the opponent, every point from the player's ace point up to
+ * the 24 point and then the bar adds a one bit per checker followed by a zero bit.
+ * Bits fill the bytes starting with the least significant one.
+ */
+public class PositionId {
+
+    /**
+     * Number of bytes in a key.
+     */
+    public static final int BYTES = 10;
+
+    private static final int BITS = 8 * BYTES;
+
+    // MARK: - Methods
+
+    /**
+     * Returns the 10 byte key of the board with the player in the given direction
+     * on roll.
+     */
+    public static byte[] key(int[] points, int turn) {
+        byte[] key = new byte[BYTES];
+        int bit = 0;
+
+        for (int direction : new int[]{turn, -1 * turn}) {
+            for (int point = 1; point <= 25; point++) {
+                int checkers = points[index(point, direction)] * direction;
+
+                for (int i = 0; i < checkers; i++, bit++) {
+                    if (bit >= BITS)
+                        throw new IllegalArgumentException("A player has at most 15 checkers.");
+                    key[bit / 8] |= 1 << (bit % 8);
+                }
+                bit++;
+            }
+        }
+
+        if (bit > BITS)
+            throw new IllegalArgumentException("A player has at most 15 checkers.");
+
+        return key;
+    }
+
+    /**
+     * Returns the Position ID of the board with the player in the given direction
+     * on roll, for example "4HPwATDgc/ABMA" for the starting position.
+     */
+    public static String encode(int[] points, int turn) {
+        return Base64.getEncoder().withoutPadding().encodeToString(key(points, turn));
+    }
+
+    /**
+     * Decodes a Position ID into a board with the player in the given direction on
+     * roll.
+     */
+    public static int[] decode(String id, int turn) {
+        byte[] key;
+        try {
+            key = Base64.getDecoder().decode(id);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Not a Position ID: " + id);
+        }
+
+        if (id.length() != 14 || key.length != BYTES)
+            throw new IllegalArgumentException("Not a Position ID: " + id);
+
+        return decode(key, turn);
+    }
+
+    /**
+     * Decodes a 10 byte key into a board with the player in the given direction on
+     * roll.
+     */
+    public static int[] decode(byte[] key, int turn) {
+        int[] points = new int[26];
+        int bit = 0;
+
+        for (int direction : new int[]{turn, -1 * turn}) {
+            int total = 0;
+
+            for (int point = 1; point <= 25; point++) {
+                int checkers = 0;
+                while (bit < BITS && (key[bit / 8] >> (bit % 8) & 1) == 1) {
+                    checkers++;
+                    bit++;
+                }
+                bit++;
+
+                // Points of the other player are left alone.
+                total += checkers;
+                if (checkers > 0)
+                    points[index(point, direction)] = checkers * direction;
+            }
+
+            if (total > 15)
+                throw new IllegalArgumentException("A player has at most 15 checkers.");
+        }
+
+        return points;
+    }
+
+    /**
+     * Tells the index on our board of a point as seen by the player in the given
+     * direction, where 25 stands for the player's bar.
+     */
+    private static int index(int point, int direction) {
+        return direction == -1 ? point : 25 - point;
+    }
+}
@@ -0,0 +1,83 @@
+package model;
+
+/**
+ * Encodes positions as eXtreme Gammon IDs, for example
+ * "XGID=-b----E-C---eE---c-e----B-:0:0:1:52:0:0:0:0:10".
+ * <p>
+ * The first field lists the 26 points of the board. Upper case letters are white
+ * checkers, lower case letters black ones and the letter tells how many there
+ * are (A is one). The points go in the same order as in Game, so white's bar is
+ * last and black's bar is first. The other fields are the cube value and owner,
+ * the player on roll (1 for white), the dice, the score, the Crawford flag, the
+ * match length and the cube limit. We don't play with the cube or matches, so
+ * those are written as in a money game and ignored when reading.
+ */
+public class Xgid {
+
+    private static final String PREFIX = "XGID=";
+
+    // MARK: - Methods
+
+    public static String encode(Position position) {
+        StringBuilder text = new StringBuilder(PREFIX);
+
+        for (int checkers : position.points) {
+            if (checkers == 0)
+                text.append('-');
+            else if (checkers < 0)
+                text.append((char) ('A' - checkers - 1));
+            else
+                text.append((char) ('a' + checkers - 1));
+        }
+
+        String dice = position.dice.isEmpty() ? "00" : "" + position.dice.get(0) + position.dice.get(1);
+
+        return text.append(":0:0:").append(-1 * position.turn).append(':').append(dice).append(":0:0:0:0:10")
+                .toString();
+    }
+
+    /**
+     * Tells whether the text looks like an XGID.
+     */
+    public static boolean matches(String text) {
+        return text.startsWith(PREFIX);
+    }
+
+    public static Position decode(String text) {
+        if (!matches(text))
+            throw new IllegalArgumentException("Not an XGID: " + text);
+
+        String[] fields = text.substring(PREFIX.length()).split(":");
+        if (fields.length < 5 || fields[0].length() != 26)
+            throw new IllegalArgumentException("Not an XGID: " + text);
+
+        // Board.
+        int[] points = new int[26];
+        for (int i = 0; i < 26; i++) {
+            char c = fields[0].charAt(i);
+            if (c == '-')
+                points[i] = 0;
+            else if ('A' <= c && c <= 'O')
+                points[i] = -1 * (c - 'A' + 1);
+            else if ('a' <= c && c <= 'o')
+                points[i] = c - 'a' + 1;
+            else
+                throw new IllegalArgumentException("Unknown point: " + c);
+        }
+
+        // Turn.
+        int turn;
+        switch (fields[3]) {
+            case "1":
+                turn = -1;
+                break;
+            case "-1":
+                turn = 1;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown turn: " + fields[3]);
+        }
+
+        return new Position(points, turn, Position.parseDice(fields[4]));
+    }
+}
@@ -0,0 +1,79 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * Connection is a client socket of the server together with its buffers. The
+ * selector thread reads from it and writes to it, sessions only queue frames.
+ */
+class Connection {
+
+    private static final int BUFFER = 4096;
+
+    final SocketChannel channel;
+    final SelectionKey key;
+
+    /**
+     * Bytes read but not yet taken apart into frames, ready for writing.
+     */
+    final ByteBuffer input;
+
+    /**
+     * Frames waiting to be written.
+     */
+    private final ArrayDeque<ByteBuffer> output;
+
+    private final Server server;
+    Session session;
+
+    Connection(Server server, SocketChannel channel, SelectionKey key) {
+        this.server = server;
+        this.channel = channel;
+        this.key = key;
+        this.input = ByteBuffer.allocate(BUFFER);
+        this.output = new ArrayDeque<>();
+    }
+
+    /**
+     * Queues a frame and lets the selector know there is something to write. It may
+     * be called from any thread.
+     */
+    void send(ByteBuffer frame) {
+        synchronized (this.output) {
+            this.output.add(frame);
+        }
+        this.server.wantsToWrite(this);
+    }
+
+    /**
+     * Writes as much of the queued frames as the socket takes and tells whether
+     * everything was written.
+     */
+    boolean flush() throws IOException {
+        synchronized (this.output) {
+            while (!this.output.isEmpty()) {
+                ByteBuffer frame = this.output.peek();
+                this.channel.write(frame);
+                if (frame.hasRemaining())
+                    return false;
+                this.output.poll();
+            }
+            return true;
+        }
+    }
+
+    void close() {
+        this.key.cancel();
+        try {
+            this.channel.close();
+        } catch (IOException ignored) {
+        }
+
+        if (this.session != null)
+            this.session.close();
+    }
+}
@@ -0,0 +1,203 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import intelligence.Computer;
+import model.Game;
+
+/**
+ * Plays many games against a server at once with random moves and reports how
+ * many moves both sides make per second and how long clients wait for the server.
+ * <p>
+ * Usage: java server.LoadGenerator [--host h] [--port n] [--sessions n] [--time s]
+ * <p>
+ * Latency is measured from a client's move to the next state the server sends,
+ * so it includes the computer's replies.
+ */
+public class LoadGenerator {
+
+    // MARK: - State
+
+    private final String host;
+    private final int port;
+    private final long deadline;
+
+    private final AtomicLong moves = new AtomicLong();
+    private final AtomicInteger games = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    /**
+     * Latencies of all requests in nanoseconds.
+     */
+    private final ArrayList<Long> latencies = new ArrayList<>();
+
+    private LoadGenerator(String host, int port, long deadline) {
+        this.host = host;
+        this.port = port;
+        this.deadline = deadline;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = "localhost";
+        int port = Server.PORT;
+        int sessions = 100;
+        long time = 30;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--host":
+                    host = args[++i];
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--sessions":
+                    sessions = Integer.parseInt(args[++i]);
+                    break;
+                case "--time":
+                    time = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    System.out.println(
+                            "Usage: java server.LoadGenerator [--host h] [--port n] [--sessions n] [--time s]");
+                    return;
+            }
+        }
+
+        long start = System.nanoTime();
+        LoadGenerator generator = new LoadGenerator(host, port, start + time * 1_000_000_000L);
+
+        Executor executor = Computer.defaultExecutor();
+        CountDownLatch done = new CountDownLatch(sessions);
+        for (int i = 0; i < sessions; i++) {
+            long seed = i;
+            executor.execute(() -> {
+                try {
+                    generator.play(new Random(seed));
+                } catch (IOException e) {
+                    generator.errors.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+
+        System.out.println(generator.report(System.nanoTime() - start, sessions));
+    }
+
+    // MARK: - Client
+
+    /**
+     * Plays games as white until the time is up.
+     */
+    private void play(Random random) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress(this.host, this.port))) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            ArrayList<Long> latencies = new ArrayList<>();
+
+            while (System.nanoTime() < this.deadline) {
+                channel.write(Protocol.frame(Protocol.NEW, (byte) -1));
+                Protocol.State state = this.await(channel);
+
+                while (state.state == Game.State.IN_PROGRESS && System.nanoTime() < this.deadline) {
+                    long sent = System.nanoTime();
+                    channel.write(this.move(state, random));
+                    state = this.await(channel);
+                    latencies.add(System.nanoTime() - sent);
+                    this.moves.incrementAndGet();
+                }
+
+                if (state.state != Game.State.IN_PROGRESS)
+                    this.games.incrementAndGet();
+            }
+
+            synchronized (this.latencies) {
+                this.latencies.addAll(latencies);
+            }
+        }
+    }
+
+    /**
+     * Picks a random legal move or passes if there is none.
+     */
+    private ByteBuffer move(Protocol.State state, Random random) {
+        ArrayList<int[]> moves = new ArrayList<>();
+        for (int start = 0; start < 26; start++) {
+            for (int end : Game.getMoves(state.points, state.turn, state.dice, start)) {
+                moves.add(new int[]{start, end});
+            }
+        }
+
+        if (moves.isEmpty())
+            return Protocol.frame(Protocol.PASS);
+
+        int[] move = moves.get(random.nextInt(moves.size()));
+        return Protocol.move(Protocol.MOVE, move[0], move[1]);
+    }
+
+    /**
+     * Reads messages until it's our turn again or the game is over and counts the
+     * moves of the computer on the way.
+     */
+    private Protocol.State await(SocketChannel channel) throws IOException {
+        while (true) {
+            Protocol.Message message = Protocol.read(channel);
+
+            switch (message.type) {
+                case Protocol.STATE:
+                    Protocol.State state = Protocol.state(message.payload);
+                    if (state.turn == -1 || state.state != Game.State.IN_PROGRESS)
+                        return state;
+                    break;
+                case Protocol.COMPUTER_MOVE:
+                    this.moves.incrementAndGet();
+                    break;
+                case Protocol.ERROR:
+                    throw new IOException(Protocol.text(message.payload));
+                default:
+                    break;
+            }
+        }
+    }
+
+    // MARK: - Report
+
+    private String report(long nanos, int sessions) {
+        long[] sorted;
+        synchronized (this.latencies) {
+            sorted = this.latencies.stream().mapToLong(Long::longValue).toArray();
+        }
+        Arrays.sort(sorted);
+
+        double seconds = nanos / 1e9;
+        return String.format(Locale.ROOT,
+                "sessions %d, games %d, moves %d, %.1f moves/s, latency p50 %.1f ms, p99 %.1f ms, max %.1f ms, "
+                        + "errors %d",
+                sessions, this.games.get(), this.moves.get(), this.moves.get() / seconds, percentile(sorted, 0.5),
+                percentile(sorted, 0.99), percentile(sorted, 1), this.errors.get());
+    }
+
+    /**
+     * Returns the given percentile of sorted latencies in milliseconds.
+     */
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0)
+            return Double.NaN;
+
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
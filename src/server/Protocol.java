@@ -0,0 +1,182 @@
+package server;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import model.Game;
+
+/**
+ * Protocol describes the binary messages that the server and its clients
+ * exchange. Every message is a frame of a two byte length, a one byte type and
+ * the payload, all in network byte order.
+ * <p>
+ * Clients send NEW to start a game (payload: the direction of the player the
+ * client plays), MOVE to make a move (start and end point) and PASS when they
+ * can't move. The server answers with STATE after every change of the game
+ * (turn, state, dice and the 26 points), COMPUTER_MOVE for every move of the
+ * computer (start and end point) and ERROR (a UTF-8 message) when something is
+ * wrong.
+ */
+public class Protocol {
+
+    public static final byte NEW = 1;
+    public static final byte MOVE = 2;
+    public static final byte PASS = 3;
+    public static final byte STATE = 4;
+    public static final byte COMPUTER_MOVE = 5;
+    public static final byte ERROR = 6;
+
+    /**
+     * Length of the frame header.
+     */
+    static final int HEADER = 3;
+
+    /**
+     * Biggest payload a frame may carry.
+     */
+    static final int MAX_PAYLOAD = 1024;
+
+    // MARK: - Message
+
+    /**
+     * A received frame.
+     */
+    public static class Message {
+        public final byte type;
+        public final byte[] payload;
+
+        Message(byte type, byte[] payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * The game as the STATE message describes it.
+     */
+    public static class State {
+        public final int turn;
+        public final Game.State state;
+        public final ArrayList<Integer> dice;
+        public final int[] points;
+
+        State(int turn, Game.State state, ArrayList<Integer> dice, int[] points) {
+            this.turn = turn;
+            this.state = state;
+            this.dice = dice;
+            this.points = points;
+        }
+    }
+
+    // MARK: - Encoding
+
+    public static ByteBuffer frame(byte type, byte... payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + payload.length);
+        buffer.putShort((short) (1 + payload.length));
+        buffer.put(type);
+        buffer.put(payload);
+        buffer.flip();
+        return buffer;
+    }
+
+    public static ByteBuffer move(byte type, int start, int end) {
+        return frame(type, (byte) start, (byte) end);
+    }
+
+    public static ByteBuffer error(String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_PAYLOAD)
+            bytes = Arrays.copyOf(bytes, MAX_PAYLOAD);
+        return frame(ERROR, bytes);
+    }
+
+    public static ByteBuffer state(Game game) {
+        ArrayList<Integer> dice = game.getDice();
+        int[] points = game.getPoints();
+
+        byte[] payload = new byte[3 + dice.size() + 26];
+        payload[0] = (byte) game.getTurn();
+        payload[1] = (byte) game.getState().ordinal();
+        payload[2] = (byte) dice.size();
+        for (int i = 0; i < dice.size(); i++) {
+            payload[3 + i] = (byte) (int) dice.get(i);
+        }
+        for (int i = 0; i < 26; i++) {
+            payload[3 + dice.size() + i] = (byte) points[i];
+        }
+
+        return frame(STATE, payload);
+    }
+
+    // MARK: - Decoding
+
+    /**
+     * Takes the next complete frame out of the buffer, which is ready for reading,
+     * or returns null if the frame hasn't fully arrived yet.
+     */
+    static Message next(ByteBuffer buffer) {
+        if (buffer.remaining() < 2)
+            return null;
+
+        int length = buffer.getShort(buffer.position()) & 0xffff;
+        if (length < 1 || length > MAX_PAYLOAD + 1)
+            throw new IllegalArgumentException("Bad frame length: " + length);
+        if (buffer.remaining() < 2 + length)
+            return null;
+
+        buffer.getShort();
+        byte type = buffer.get();
+        byte[] payload = new byte[length - 1];
+        buffer.get(payload);
+
+        return new Message(type, payload);
+    }
+
+    /**
+     * Reads a whole frame from a blocking channel.
+     */
+    public static Message read(ReadableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        fill(channel, header);
+
+        int length = header.getShort(0) & 0xffff;
+        if (length < 1 || length > MAX_PAYLOAD + 1)
+            throw new IOException("Bad frame length: " + length);
+
+        ByteBuffer payload = ByteBuffer.allocate(length - 1);
+        fill(channel, payload);
+
+        return new Message(header.get(2), payload.array());
+    }
+
+    private static void fill(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0)
+                throw new EOFException("Connection closed.");
+        }
+    }
+
+    public static State state(byte[] payload) {
+        int count = payload[2];
+        ArrayList<Integer> dice = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            dice.add((int) payload[3 + i]);
+        }
+
+        int[] points = new int[26];
+        for (int i = 0; i < 26; i++) {
+            points[i] = payload[3 + count + i];
+        }
+
+        return new State(payload[0], Game.State.values()[payload[1]], dice, points);
+    }
+
+    public static String text(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,196 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+import intelligence.Computer;
+import intelligence.EvaluationCache;
+import intelligence.Scheduler;
+import intelligence.Settings;
+import model.GameArchive;
+
+/**
+ * Server hosts many games against the computer at once. A single thread handles
+ * all sockets with a selector, every game runs as a session on its own virtual
+ * thread (or a plain thread on JVMs without them) and all sessions share the
+ * engine threads of a Scheduler, which serves them in turns.
+ * <p>
+ * Usage: java server.Server [--port n] [--engines n] [--iterations n] [--deadline ms]
+ * <p>
+ * Messages are described in Protocol. Finished games are recorded in the shared
+ * GameArchive.
+ */
+public class Server {
+
+    public static final int PORT = 7000;
+
+    /**
+     * Default milliseconds the computer may think about a move.
+     */
+    public static final long DEADLINE = 2000;
+
+    private final Selector selector;
+    private final ServerSocketChannel socket;
+    private final Scheduler scheduler;
+    private final long deadline;
+
+    /**
+     * Where finished games are recorded, or null if they aren't.
+     */
+    private final GameArchive archive;
+
+    /**
+     * Runs the sessions.
+     */
+    private final Executor sessions;
+
+    /**
+     * Connections with frames to write, which the selector thread has to register
+     * for writing.
+     */
+    private final ConcurrentLinkedQueue<Connection> writers;
+
+    // MARK: - Constructor
+
+    public Server(int port, int engines, Settings settings, long deadline) throws IOException {
+        this.selector = Selector.open();
+        this.socket = ServerSocketChannel.open();
+        this.socket.bind(new InetSocketAddress(port), 1024);
+        this.socket.configureBlocking(false);
+        this.socket.register(this.selector, SelectionKey.OP_ACCEPT);
+
+        this.scheduler = new Scheduler(engines, settings, EvaluationCache.shared());
+        this.deadline = deadline;
+        this.archive = GameArchive.shared();
+        this.sessions = Computer.defaultExecutor();
+        this.writers = new ConcurrentLinkedQueue<>();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = PORT;
+        int engines = Runtime.getRuntime().availableProcessors();
+        Settings settings = Settings.DEFAULT;
+        long deadline = DEADLINE;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--engines":
+                    engines = Integer.parseInt(args[++i]);
+                    break;
+                case "--iterations":
+                    settings = Settings.parse("iterations=" + args[++i]);
+                    break;
+                case "--deadline":
+                    deadline = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    System.out.println(
+                            "Usage: java server.Server [--port n] [--engines n] [--iterations n] [--deadline ms]");
+                    return;
+            }
+        }
+
+        Server server = new Server(port, engines, settings, deadline);
+        System.out.println("Listening on port " + port + " with " + engines + " engines.");
+        server.serve();
+    }
+
+    // MARK: - Methods
+
+    /**
+     * Handles the sockets on the calling thread until the thread is interrupted.
+     */
+    public void serve() throws IOException {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                this.selector.select();
+
+                // Sessions can't touch the keys, so we register their writes here.
+                Connection writer;
+                while ((writer = this.writers.poll()) != null) {
+                    if (writer.key.isValid())
+                        writer.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (!key.isValid())
+                        continue;
+
+                    if (key.isAcceptable()) {
+                        this.accept();
+                        continue;
+                    }
+
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable())
+                            this.read(connection);
+                        if (key.isValid() && key.isWritable() && connection.flush())
+                            key.interestOps(SelectionKey.OP_READ);
+                    } catch (IOException | IllegalArgumentException e) {
+                        connection.close();
+                    }
+                }
+            }
+        } finally {
+            this.selector.close();
+            this.socket.close();
+            this.scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Lets the selector thread know that a connection has frames to write.
+     */
+    void wantsToWrite(Connection connection) {
+        this.writers.add(connection);
+        this.selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = this.socket.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            SelectionKey key = channel.register(this.selector, SelectionKey.OP_READ);
+            Connection connection = new Connection(this, channel, key);
+            key.attach(connection);
+
+            connection.session = new Session(connection, this.scheduler, this.deadline, this.archive);
+            this.sessions.execute(connection.session);
+        }
+    }
+
+    /**
+     * Reads what has arrived and hands complete frames to the session.
+     */
+    private void read(Connection connection) throws IOException {
+        if (connection.channel.read(connection.input) < 0) {
+            connection.close();
+            return;
+        }
+
+        connection.input.flip();
+        Protocol.Message message;
+        while ((message = Protocol.next(connection.input)) != null) {
+            connection.session.receive(message);
+        }
+        connection.input.compact();
+    }
+}
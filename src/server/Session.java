@@ -0,0 +1,180 @@
+package server;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import intelligence.Computer;
+import intelligence.Play;
+import intelligence.Scheduler;
+import model.Game;
+import model.GameArchive;
+
+/**
+ * Session is a game between a client and the computer. It runs on its own
+ * (virtual) thread and handles the client's messages one after another, so the
+ * game needs no locking.
+ */
+class Session implements Runnable {
+
+    /**
+     * Tells the session that the connection was closed.
+     */
+    private static final Protocol.Message CLOSE = new Protocol.Message((byte) 0, new byte[0]);
+
+    private final Connection connection;
+    private final Scheduler scheduler;
+    private final BlockingQueue<Protocol.Message> inbox;
+
+    /**
+     * Milliseconds the computer may think about a move.
+     */
+    private final long deadline;
+
+    /**
+     * Where finished games are recorded, or null if they aren't.
+     */
+    private final GameArchive archive;
+
+    private Game game;
+
+    /**
+     * Tells whether the game has been recorded.
+     */
+    private boolean recorded;
+
+    /**
+     * Direction of the player the client plays.
+     */
+    private int side;
+
+    Session(Connection connection, Scheduler scheduler, long deadline, GameArchive archive) {
+        this.connection = connection;
+        this.scheduler = scheduler;
+        this.deadline = deadline;
+        this.archive = archive;
+        this.inbox = new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * Hands a message over to the session. It may be called from any thread.
+     */
+    void receive(Protocol.Message message) {
+        this.inbox.add(message);
+    }
+
+    void close() {
+        this.inbox.add(CLOSE);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                Protocol.Message message = this.inbox.take();
+                if (message == CLOSE)
+                    return;
+
+                try {
+                    this.handle(message);
+                } catch (RuntimeException e) {
+                    this.connection.send(Protocol.error(String.valueOf(e)));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // MARK: - Messages
+
+    private void handle(Protocol.Message message) throws InterruptedException {
+        switch (message.type) {
+            case Protocol.NEW:
+                this.side = message.payload.length > 0 && message.payload[0] == 1 ? 1 : -1;
+                this.game = new Game();
+                this.recorded = false;
+                break;
+            case Protocol.MOVE:
+                if (!this.isClientOnTurn() || message.payload.length != 2) {
+                    this.connection.send(Protocol.error("Not your move."));
+                    return;
+                }
+
+                int start = message.payload[0];
+                int end = message.payload[1];
+                if (start < 0 || start > 25 || !this.game.getMoves(start).contains(end)) {
+                    this.connection.send(Protocol.error("Illegal move."));
+                    return;
+                }
+
+                this.game.move(start, end);
+                break;
+            case Protocol.PASS:
+                if (!this.isClientOnTurn()) {
+                    this.connection.send(Protocol.error("Not your move."));
+                    return;
+                }
+                this.game.next();
+                break;
+            default:
+                this.connection.send(Protocol.error("Unknown message: " + message.type));
+                return;
+        }
+
+        this.connection.send(Protocol.state(this.game));
+        this.play();
+        this.record();
+    }
+
+    /**
+     * Appends the game to the archive once it is over.
+     */
+    private void record() {
+        if (this.archive == null || this.recorded || this.game.getState() == Game.State.IN_PROGRESS)
+            return;
+
+        this.recorded = true;
+        try {
+            this.archive.append(this.game.record());
+        } catch (IOException e) {
+            System.err.println("Couldn't record the game: " + e);
+        }
+    }
+
+    private boolean isClientOnTurn() {
+        return this.game != null && this.game.getState() == Game.State.IN_PROGRESS
+                && this.game.getTurn() == this.side;
+    }
+
+    /**
+     * Makes the computer's moves until it's the client's turn again.
+     */
+    private void play() throws InterruptedException {
+        while (this.game.getState() == Game.State.IN_PROGRESS && this.game.getTurn() != this.side) {
+            if (Arrays.stream(this.game.getMovableCheckers()).sum() == 0) {
+                this.game.next();
+            } else {
+                Play play;
+                try {
+                    play = this.scheduler.submit(this, this.game.getPoints(), this.game.getTurn(),
+                            this.game.getDice(), this.deadline).get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Engine failed.", e.getCause());
+                }
+
+                if (play.moves.isEmpty())
+                    return;
+
+                for (Computer.Move move : play.moves) {
+                    this.game.move(move.start, move.end);
+                    this.connection.send(Protocol.move(Protocol.COMPUTER_MOVE, move.start, move.end));
+                }
+            }
+
+            this.connection.send(Protocol.state(this.game));
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package view;
+
+import java.awt.Point;
+
+/**
+ * BoardLayout tells where everything on a board of a given size goes. It is
+ * computed once per size, so painting looks positions up in tables and finding
+ * what is under the mouse is a matter of a few divisions.
+ * <p>
+ * Returned points are shared and must not be modified.
+ */
+final class BoardLayout {
+
+    final int width;
+    final int height;
+
+    final int pointWidth;
+    final int pointHeight;
+    final int checkerSize;
+
+    /**
+     * Number of checkers that fit in a single row on a point.
+     */
+    private final int row;
+
+    private final int margin;
+
+    /**
+     * Left edges of the left and the right half of the board.
+     */
+    private final int left;
+    private final int right;
+
+    /**
+     * Where each point starts and where each checker on it goes.
+     */
+    private final Point[] bases;
+    private final Point[][] checkers;
+
+    /**
+     * Points in each of the 12 columns from left to right in the top and the bottom
+     * half of the board.
+     */
+    private final int[] top;
+    private final int[] bottom;
+
+    // MARK: - Constructor
+
+    BoardLayout(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        this.margin = BoardView.BOARD_BORDER + BoardView.PADDING;
+        this.pointWidth = Math.max(1, (width - 2 * this.margin - BoardView.BAR_WIDTH) / 12);
+        this.pointHeight = Math.max(1, (height - 2 * this.margin - BoardView.BOARD_BORDER) / 2);
+        this.checkerSize = Math.max(1, this.pointWidth * 4 / 5);
+        this.row = Math.max(1, this.pointHeight / this.checkerSize);
+
+        this.left = this.margin;
+        this.right = width - this.margin - 6 * this.pointWidth;
+
+        this.bases = new Point[26];
+        this.checkers = new Point[26][BoardView.CHECKERS + 1];
+        this.top = new int[12];
+        this.bottom = new int[12];
+
+        for (int i = 0; i < 26; i++) {
+            this.bases[i] = this.computePointBase(i);
+
+            for (int j = 0; j < this.checkers[i].length; j++) {
+                this.checkers[i][j] = this.computeCheckerPosition(i, j);
+            }
+
+            // Boards too small to show the points have no columns.
+            int column = this.column(this.bases[i].x);
+            if (1 <= i && i < 25 && column >= 0) {
+                if (i < 13)
+                    this.bottom[column] = i;
+                else
+                    this.top[column] = i;
+            }
+        }
+    }
+
+    // MARK: - Accessors
+
+    /**
+     * Returns where on the screen the point should start.
+     */
+    Point base(int index) {
+        return this.bases[index];
+    }
+
+    /**
+     * Returns the position of the checker on the board given the index of the point
+     * and the checker position.
+     */
+    Point checker(int index, int checker) {
+        if (checker < 0)
+            checker = 0;
+        if (checker < this.checkers[index].length)
+            return this.checkers[index][checker];
+        return this.computeCheckerPosition(index, checker);
+    }
+
+    /**
+     * Tells the direction of the point based on the side of the board it is on.
+     */
+    static int orientation(int index) {
+        if (1 <= index && index < 13)
+            return -1;
+
+        if (index == 25)
+            return -1;
+
+        return 1;
+    }
+
+    // MARK: - Hit testing
+
+    /**
+     * Returns the point whose stack of checkers covers the given location or -1 if
+     * there is none.
+     */
+    int stackAt(int x, int y, BoardSnapshot snapshot) {
+        int index;
+
+        if (Math.abs(x - this.width / 2) <= BoardView.BAR_WIDTH / 2) {
+            // Black's bar is below the center and white's above it.
+            index = y >= this.height / 2 ? 0 : 25;
+        } else {
+            int column = this.column(x);
+            if (column < 0)
+                return -1;
+
+            index = y >= this.height / 2 ? this.bottom[column] : this.top[column];
+        }
+
+        int count = Math.min(Math.abs(snapshot.checkers(index)), this.row);
+        if (count == 0)
+            return -1;
+
+        // Distance from the point's base towards the center of the board.
+        Point base = this.bases[index];
+        int distance = orientation(index) * (y - base.y);
+
+        return 0 <= distance && distance < count * this.checkerSize ? index : -1;
+    }
+
+    /**
+     * Returns the point on the board (1 to 24) that is closest to the given
+     * location or -1 if the board is too small to show the points.
+     */
+    int pointAt(int x, int y) {
+        // The bar belongs to the closer of its neighbouring columns.
+        int center = this.width / 2;
+        int half = BoardView.BAR_WIDTH / 2;
+        if (Math.abs(x - center) <= half)
+            x = x < center ? this.left + 6 * this.pointWidth - 1 : this.right;
+
+        int column = this.column(Math.max(this.left, Math.min(this.right + 6 * this.pointWidth - 1, x)));
+        if (column < 0)
+            return -1;
+
+        return y >= this.height / 2 ? this.bottom[column] : this.top[column];
+    }
+
+    /**
+     * Returns the column (0 to 11) the given x coordinate falls in or -1 if it is
+     * outside of the points.
+     */
+    private int column(int x) {
+        if (this.left <= x && x < this.left + 6 * this.pointWidth)
+            return (x - this.left) / this.pointWidth;
+        if (this.right <= x && x < this.right + 6 * this.pointWidth)
+            return 6 + (x - this.right) / this.pointWidth;
+        return -1;
+    }
+
+    // MARK: - Geometry
+
+    private Point computePointBase(int index) {
+        /*
+         * We use modulo indexes to calculate the relative position of the checker in a
+         * given group.
+         *
+         * - n tells the position in a single block of six points - i tells relative
+         * position on a given side of the board
+         */
+        int n = (index - 1) % 6;
+        int i = (index - 1) % 12;
+
+        int x = 0, y = 0;
+
+        // black bar
+        if (index == 0) {
+            x = this.width / 2;
+            y = this.height / 2 + BoardView.BOARD_BORDER;
+        }
+
+        // bottom
+        if (1 <= index && index < 13) {
+            y = this.height - this.margin;
+
+            if (0 <= i && i < 6)
+                x = this.width - this.margin - (1 + 2 * n) * this.pointWidth / 2;
+            if (6 <= i && i < 12)
+                x = this.margin + (11 - 2 * n) * this.pointWidth / 2;
+        }
+
+        // top
+        if (13 <= index && index < 25) {
+            y = this.margin;
+
+            if (0 <= i && i < 6)
+                x = this.margin + (1 + 2 * n) * this.pointWidth / 2;
+            if (6 <= i && i < 12)
+                x = this.width - this.margin - (11 - 2 * n) * this.pointWidth / 2;
+        }
+
+        // white bar
+        if (index == 25) {
+            x = this.width / 2;
+            y = this.height / 2 - BoardView.BOARD_BORDER;
+        }
+
+        return new Point(x, y);
+    }
+
+    private Point computeCheckerPosition(int index, int checker) {
+        // Direction tells how we should add next checkers to the point.
+        int direction = orientation(index);
+        Point base = this.computePointBase(index);
+
+        int x = base.x;
+        int y = base.y + direction * (this.checkerSize / 2);
+
+        // Checkers that don't fit in a row start over slightly shifted.
+        int offset = (checker / this.row) * BoardView.CHECKER_OFFSET;
+        int margin = (checker % this.row) * this.checkerSize;
+
+        return new Point(x, y + direction * (margin + offset));
+    }
+}
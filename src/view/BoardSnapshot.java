@@ -0,0 +1,104 @@
+package view;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import model.Game;
+
+/**
+ * BoardSnapshot is everything the board view paints, taken from a game at one
+ * moment. It never changes, so painting from it runs no game logic and can't see
+ * a game in the middle of a move.
+ */
+public final class BoardSnapshot {
+
+    /**
+     * Checkers on each of the 26 points.
+     */
+    private final int[] points;
+
+    /**
+     * Points that have a checker the player on turn may move.
+     */
+    public final Set<Integer> movable;
+
+    private final int[] dice;
+
+    public final Game.State state;
+
+    /**
+     * Direction of the player on turn.
+     */
+    public final int turn;
+
+    /**
+     * Pips each player still has to move.
+     */
+    public final int whitePips;
+    public final int blackPips;
+
+    // MARK: - Constructor
+
+    public BoardSnapshot(Game game) {
+        this(game.getPoints(), game.getTurn(), game.getDice());
+    }
+
+    /**
+     * Takes a snapshot of a position outside of a game.
+     */
+    public BoardSnapshot(int[] points, int turn, List<Integer> dice) {
+        this.points = Game.clonePoints(points);
+        this.turn = turn;
+        this.state = Game.getState(this.points);
+
+        this.dice = new int[dice.size()];
+        for (int i = 0; i < dice.size(); i++) {
+            this.dice[i] = dice.get(i);
+        }
+
+        HashSet<Integer> movable = new HashSet<>();
+        int[] checkers = Game.getMovableCheckers(this.points, this.turn, new ArrayList<>(dice));
+        for (int i = 0; i < checkers.length; i++) {
+            if (checkers[i] > 0)
+                movable.add(i);
+        }
+        this.movable = Collections.unmodifiableSet(movable);
+
+        this.whitePips = Game.getPips(this.points, -1);
+        this.blackPips = Game.getPips(this.points, 1);
+    }
+
+    // MARK: - Accessors
+
+    /**
+     * Returns the number of checkers on the given point. Positive values are black
+     * checkers and negative ones white.
+     */
+    public int checkers(int point) {
+        return this.points[point];
+    }
+
+    /**
+     * Returns a copy of the board.
+     */
+    public int[] board() {
+        return Game.clonePoints(this.points);
+    }
+
+    /**
+     * Returns a copy of the dice.
+     */
+    public int[] dice() {
+        return this.dice.clone();
+    }
+
+    /**
+     * Returns the pips the player in the given direction still has to move.
+     */
+    public int pips(int direction) {
+        return direction == 1 ? this.blackPips : this.whitePips;
+    }
+}
@@ -3,8 +3,14 @@ package view;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.EventObject;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
 
@@ -16,25 +22,27 @@ import model.*;
  * This file contains everything related to drawing the board.
  */
 
-public class BoardView extends JPanel implements ActionListener, MouseListener, MouseMotionListener {
+public class BoardView extends JPanel implements MouseListener, MouseMotionListener {
     // Offset from the edge of the screen.
-    private static final int PADDING = 75;
+    static final int PADDING = 75;
 
     // Board padding or the border of the board.
-    private static final int BOARD_BORDER = 30;
+    static final int BOARD_BORDER = 30;
     // The width of the bar in the center.
-    private static final int BAR_WIDTH = 2 * BOARD_BORDER;
+    static final int BAR_WIDTH = 2 * BOARD_BORDER;
     // How wide should a point preferably be.
     private static final int PREFERRED_POINT_WIDTH = 60;
     // The offset of checker over the other checker.
-    private static final int CHECKER_OFFSET = 5;
+    static final int CHECKER_OFFSET = 5;
     // Number of checkers that each player has.
-    private static final int CHECKERS = 15;
+    static final int CHECKERS = 15;
 
     // Duration of an animation in milliseconds.
     private static final int ANIMATION_DURATION = 200;
-    // Number of frames in an animation.
-    private static final int FRAMES = 40;
+    // How much faster the moves go once the user clicks during an animation.
+    private static final double SPEED_UP = 4;
+    // How often the thinking computer's checker changes its color in milliseconds.
+    private static final int INDICATOR_INTERVAL = 100;
 
     // Board color settings.
     private static final Color BOARD_COLOR = new Color(117, 60, 24);
@@ -43,7 +51,9 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
 
     private static final Color CHECKER_EDGE = new Color(128, 116, 111);
     private static final Color ACTIVE_CHECKER_EDGE = new Color(100, 255, 100);
-    private static final Color CHECKER_BACKGROUND = new Color(233, 241, 223);
+
+    private static final BasicStroke EDGE_STROKE = new BasicStroke(2);
+    private static final BasicStroke DEFAULT_STROKE = new BasicStroke(1);
 
     private static final Color DROP_COLOR = new Color(75, 75, 75);
     private static final Color TARGET_COLOR = new Color(0, 0, 0);
@@ -54,26 +64,23 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
     private static final Color RESULT_BACKGROUND = new Color(246, 236, 236);
     private static final Color VICTORY_COLOR = new Color(250, 230, 50);
 
+    // Colors of the hinted plays, best first.
+    private static final Color[] HINT_COLORS = {
+            new Color(40, 170, 90, 200),
+            new Color(40, 110, 200, 170),
+            new Color(150, 80, 190, 140)
+    };
+
 
     // MARK: - Delegate
 
     public interface Delegate {
-        /**
-         * Returns the current state on the board.
-         */
-        int[] board();
-
         /**
          * Tells whether a stone may be dragged or not by telling where it may be
          * dropped.
          */
         Set<Integer> draggable(int start);
 
-        /**
-         * Set of all points that may be moved.
-         */
-        Set<Integer> movable();
-
         /**
          * Event that's triggered when the stone has been dragged to a new location.
          */
@@ -84,11 +91,6 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
          */
         void onClick(EventObject event);
 
-        /**
-         * Current dice.
-         */
-        int[] dice();
-
         /**
          * Returns the white player.
          */
@@ -100,19 +102,43 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
         Player black();
 
         /**
-         * Tells the direction of currently active player.
+         * Triggered when an animated checker arrives. The move should be made in the
+         * model before the next checker starts.
          */
-        int turn();
+        void onAnimationComplete(int start, int end);
 
         /**
-         * Current game state.
+         * Triggered when the last of the animated moves is complete.
          */
-        Game.State state();
+        void onMovesAnimated();
+    }
 
+    /**
+     * A play the computer is considering, which the board may show as a hint.
+     */
+    public static class Hint {
         /**
-         * Triggered when animation completes.
+         * Moves of the play as pairs of start and end point.
          */
-        void onAnimationComplete(int start, int end);
+        public final List<int[]> moves;
+
+        /**
+         * How the play is written, e.g. "13/7 8/3".
+         */
+        public final String label;
+
+        /**
+         * Share of the computer's search spent on the play and its win estimate.
+         */
+        public final double share;
+        public final double win;
+
+        public Hint(List<int[]> moves, String label, double share, double win) {
+            this.moves = moves;
+            this.label = label;
+            this.share = share;
+            this.win = win;
+        }
     }
 
     /**
@@ -139,30 +165,126 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
 
     // MARK: - State
 
+    /**
+     * The game as we paint it. The controller publishes a new one whenever the game
+     * changes.
+     */
+    private BoardSnapshot snapshot;
+
     /**
      * The checker that is currently animated.
      */
     private AnimatedChecker animated;
 
-    private static class AnimatedChecker {
+    /**
+     * Moves waiting to be animated after the current one.
+     */
+    private final ArrayDeque<int[]> queue;
+
+    /**
+     * How many times faster than usual the checkers move.
+     */
+    private double speed;
+
+    private class AnimatedChecker implements FrameScheduler.Animation {
         /**
          * The point we took the checker from.
          */
         public int start;
         public int end;
 
-        public int frame;
+        /**
+         * How far the checker got, from 0 to 1, and when we last moved it.
+         */
+        public double progress;
+        public long elapsed;
+
+        /**
+         * Where the checker flies from and to.
+         */
+        public Point origin;
+        public Point target;
+
+        @Override
+        public boolean frame(long elapsed) {
+            // Skipped or stopped animations don't want any more frames.
+            if (BoardView.this.animated != this)
+                return false;
+
+            // The speed may change on the way, so we advance by the time since the last frame.
+            double step = (elapsed - this.elapsed) / (ANIMATION_DURATION * 1e6);
+            this.progress = Math.min(1, this.progress + BoardView.this.speed * step);
+            this.elapsed = elapsed;
+
+            if (this.progress >= 1) {
+                this.finish();
+                return false;
+            }
+
+            BoardView.this.repaint(BoardView.this.getAnimationBounds(this));
+            return true;
+        }
+
+        @Override
+        public void finish() {
+            BoardView.this.onAnimationFinished(this);
+        }
     }
 
     /**
-     * Event trigger that forces redraws with animations.
+     * Drives the animations and the indicator.
+     */
+    private final FrameScheduler frames;
+
+    /**
+     * Flashes the edge of the computer's checker while it's thinking.
+     */
+    private final FrameScheduler.Animation thinking = new FrameScheduler.Animation() {
+        private long changed = -INDICATOR_INTERVAL * 1_000_000L;
+
+        @Override
+        public boolean frame(long elapsed) {
+            if (!BoardView.this.isComputerThinking()) {
+                this.finish();
+                return false;
+            }
+
+            if (elapsed - this.changed >= INDICATOR_INTERVAL * 1_000_000L) {
+                this.changed = elapsed;
+
+                Random random = BoardView.this.rand;
+                BoardView.this.indicatorEdge = new Color(random.nextFloat(), random.nextFloat(), random.nextFloat());
+                BoardView.this.repaintIndicator();
+            }
+            return true;
+        }
+
+        @Override
+        public void finish() {
+            this.changed = -INDICATOR_INTERVAL * 1_000_000L;
+
+            BoardView.this.indicatorEdge = null;
+            BoardView.this.repaintIndicator();
+        }
+    };
+
+    /**
+     * Current edge of the thinking computer's checker or null when it isn't
+     * flashing.
      */
-    private final Timer animation;
+    private Color indicatorEdge;
 
     /**
-     * Event trigger that keeps the board looking live.
+     * Plays the computer is considering, best first, or null when we don't show
+     * any.
      */
-    private final Timer alive;
+    private List<Hint> hints;
+
+    /**
+     * Tells whether the view is on the screen for somebody to play on, rather than
+     * rendered into an image.
+     */
+    private boolean interactive;
 
     private final Random rand;
 
@@ -188,30 +310,49 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
      */
     private Integer target;
 
+    /**
+     * Bounds of the checker that shows which player is on turn.
+     */
+    private Rectangle indicator;
+
+    /**
+     * Size and colors the cached images were drawn for.
+     */
+    private Dimension cachedSize;
+    private Color[] cachedColors;
+
+    /**
+     * The board with its points as it looks without any checkers.
+     */
+    private Image boardLayer;
+
+    /**
+     * Geometry of the board at its current size.
+     */
+    private BoardLayout boardLayout;
+
     // MARK: - Constructor
 
     public BoardView(Delegate delegate) {
         this.delegate = delegate;
 
-        this.mouse = this.getMousePosition();
+        this.mouse = new Point();
+        this.interactive = true;
         this.drops = new HashSet<Integer>();
 
         this.direction = 0;
         this.dragged = null;
         this.target = null;
 
-        this.animation = new Timer(ANIMATION_DURATION / FRAMES, this);
-        this.animation.setRepeats(true);
         this.animated = null;
-
-        this.alive = new Timer(100, this);
-        this.alive.setRepeats(true);
+        this.queue = new ArrayDeque<>();
+        this.setBackground(BOARD_BACKGROUND);
+        this.speed = 1;
+        this.frames = new FrameScheduler(this, FrameScheduler.FPS, this::resume);
         this.rand = new Random();
 
         this.addMouseListener(this);
         this.addMouseMotionListener(this);
-
-        this.alive.start();
     }
 
     // MARK: - Accessors
@@ -232,31 +373,155 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
     // MARK: - Method
 
     /**
-     * Animates a checker transition without modifying the state.
+     * Shows a new state of the game.
+     */
+    public void show(BoardSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.repaint();
+
+        this.resume();
+    }
+
+    /**
+     * Animates the given moves one after another without modifying the state. Each
+     * move is a pair of start and end point. The delegate makes each move once its
+     * checker arrives.
+     */
+    public void animate(List<int[]> moves) {
+        this.queue.addAll(moves);
+
+        if (this.animated == null)
+            this.animateNext();
+    }
+
+    /**
+     * Shows the plays the computer is considering over the board. Null hides them.
      */
-    public void animate(int start, int end) {
+    public void showHints(List<Hint> hints) {
+        if (hints == null && this.hints == null)
+            return;
+
+        this.hints = hints;
+        this.repaint();
+    }
+
+    /**
+     * Finishes the animated moves at once.
+     */
+    public void skipAnimation() {
+        while (this.animated != null) {
+            this.animated.finish();
+        }
+    }
+
+    /**
+     * Drops the animated moves without telling the delegate, e.g. when the game
+     * they belong to is gone.
+     */
+    public void stopAnimation() {
+        this.queue.clear();
+        this.animated = null;
+        this.speed = 1;
+
+        this.repaint();
+    }
+
+    /**
+     * Starts the animation of the next move in the queue.
+     */
+    private void animateNext() {
+        int[] move = this.queue.poll();
+
         // No animation when no move.
-        if (start == end) return;
+        while (move != null && move[0] == move[1]) {
+            move = this.queue.poll();
+        }
 
+        if (move == null) {
+            this.speed = 1;
+            this.delegate.onMovesAnimated();
+            return;
+        }
+
+        int start = move[0];
+        int end = move[1];
 
         // Creates a new animation.
         AnimatedChecker checker = new AnimatedChecker();
         checker.start = start;
         checker.end = end;
-        checker.frame = 0;
+        checker.progress = 0;
+
+        // Calculate move properties and account for taking off.
+        BoardSnapshot snapshot = this.snapshot;
+        checker.origin = this.getCheckerPosition(start, Math.abs(snapshot.checkers(start)) - 1);
+        checker.target = this.getCheckerPosition(end, Math.abs(snapshot.checkers(end)));
+        if (end == 0 || end == 25) checker.target = new Point(this.getWidth() / 2, this.getHeight() - PADDING / 2);
 
         this.animated = checker;
-        this.animation.start();
+        this.frames.start(checker);
+    }
+
+    /**
+     * Paints a position into a new image of the given size without showing it on
+     * the screen, so it also works without a display. A view may render many
+     * positions, but only on one thread at a time.
+     */
+    public BufferedImage render(BoardSnapshot snapshot, int width, int height) {
+        this.interactive = false;
+        this.snapshot = snapshot;
+        this.setSize(width, height);
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        this.paintComponent(g);
+        g.dispose();
+
+        return image;
+    }
+
+    /**
+     * Restarts the animations that belong to the shown state.
+     */
+    private void resume() {
+        if (this.isComputerThinking() && !this.frames.isRunning(this.thinking))
+            this.frames.start(this.thinking);
+    }
+
+    /**
+     * Tells whether the computer is on turn in a game that is still going on.
+     */
+    private boolean isComputerThinking() {
+        BoardSnapshot snapshot = this.snapshot;
+        if (snapshot == null || snapshot.state != Game.State.IN_PROGRESS)
+            return false;
+
+        Player player = snapshot.turn == 1 ? this.delegate.black() : this.delegate.white();
+        return player.type == Player.Type.COMPUTER;
+    }
+
+    /**
+     * Hands the animated move over to the delegate once the checker has arrived.
+     */
+    private void onAnimationFinished(AnimatedChecker checker) {
+        if (this.animated != checker)
+            return;
+
+        this.animated = null;
+        this.delegate.onAnimationComplete(checker.start, checker.end);
+        this.repaint();
+
+        this.animateNext();
     }
 
     // MARK: - View
 
     @Override
     public void paintComponent(Graphics g) {
-        super.paintComponent(g);
-
-
-        // Draw the background so it matches bearing off.
+        // Pick the background before it is filled, so it matches bearing off in this frame.
         if (this.target == null) {
             this.setBackground(BOARD_BACKGROUND);
         } else {
@@ -270,10 +535,19 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
             }
         }
 
+        super.paintComponent(g);
+
+        // We read the snapshot once so that the whole frame shows the same state.
+        BoardSnapshot snapshot = this.snapshot;
+        if (snapshot == null)
+            return;
+
+        this.invalidateCaches();
+
         // ----------------------------------------------
 
-        // Pain the board with the bar.
-        this.paintBoard(g);
+        // Paint the board with the bar and the points.
+        g.drawImage(this.getBoardLayer(), 0, 0, null);
 
         // Paint the players and borne off checkers.
         int center = this.getWidth() / 2;
@@ -284,7 +558,7 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
             if (turn == -1) player = this.delegate.white();
 
             // Checkers
-            int saved = CHECKERS - this.remainingCheckers(turn);
+            int saved = CHECKERS - remainingCheckers(snapshot, turn);
             int size = (this.getWidth() / 2) / 10;
 
             for (int i = 0; i < saved; i++) {
@@ -297,44 +571,48 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
             g.setFont(new Font("Arial", Font.BOLD, 30));
 
             // Player names.
+            String name = player.name + " (" + snapshot.pips(turn) + ")";
             FontMetrics metrics = g.getFontMetrics();
-            Rectangle2D bounds = metrics.getStringBounds(player.name, g);
+            Rectangle2D bounds = metrics.getStringBounds(name, g);
 
             // Checker size.
             int x = center + (turn * size * 3 / 2) - (1 - turn) / 2 * (int) bounds.getWidth();
             int y = PADDING / 2;
 
             g.setColor(player.checker);
-            g.drawString(player.name, x + (size * 3 / 4), y - size / 2 + (int) bounds.getHeight());
+            g.drawString(name, x + (size * 3 / 4), y - size / 2 + (int) bounds.getHeight());
 
             // Paint the checker and indicate the calculation of the computer.
             Color edge = CHECKER_EDGE;
-            if (this.delegate.turn() == turn) edge = ACTIVE_CHECKER_EDGE;
-            if (this.delegate.turn() == turn && player.type == Player.Type.COMPUTER) {
-                float red = this.rand.nextFloat();
-                float green = this.rand.nextFloat();
-                float blue = this.rand.nextFloat();
-
-                edge = new Color(red, green, blue);
+            if (snapshot.turn == turn) edge = ACTIVE_CHECKER_EDGE;
+            if (snapshot.turn == turn && player.type == Player.Type.COMPUTER && this.indicatorEdge != null)
+                edge = this.indicatorEdge;
+
+            paintChecker(g, x, y, size / 2, player.checker, CHECKER_EDGE);
+            if (snapshot.turn == turn)
+                this.indicator = this.getCheckerBounds(new Point(x, y), size / 2);
+
+            // The flashing edge is drawn over the sprite so that it doesn't fill the cache with colors.
+            if (edge != CHECKER_EDGE) {
+                Graphics2D g2d = (Graphics2D) g;
+                int r = size / 2;
+
+                g2d.setColor(edge);
+                g2d.setStroke(EDGE_STROKE);
+                g2d.drawOval(x - r, y - r, 2 * r, 2 * r);
+                g2d.setStroke(DEFAULT_STROKE);
             }
-
-            paintChecker(g, x, y, size / 2, player.checker, edge);
         }
 
         // ----------------------------------------------
 
         int checkerSize = this.getCheckerSize();
 
-        // Paint each of the points.
-        for (int i = 1; i < 25; i++) {
-            this.paintPoint(g, i);
-        }
-
-        Set<Integer> movable = this.delegate.movable();
+        Set<Integer> movable = snapshot.movable;
 
         // Paint checkers.
         for (int i = 0; i < 26; i++) {
-            int checkers = this.delegate.board()[i];
+            int checkers = snapshot.checkers(i);
             Color color = this.getCheckerColor(checkers);
 
             // Get the number of checkers and account for the dragging.
@@ -366,7 +644,7 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
 
                 // Otherwise, we draw the marker.
                 boolean targeted = drop.equals(this.target);
-                this.paintDrop(g, drop, targeted);
+                this.paintDrop(g, snapshot, drop, targeted);
             }
         }
 
@@ -379,7 +657,7 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
         // ----------------------------------------------
 
         // Paint the dice.
-        int[] dice = this.delegate.dice();
+        int[] dice = snapshot.dice();
 
         int diceSize = 2 * BOARD_BORDER / 3;
         int spacing = 2 * BOARD_BORDER / 6;
@@ -393,23 +671,23 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
             paintDie(g, diceSize, new Point(x, y), dice[i]);
         }
 
+        // Paint what the computer is thinking about.
+        List<Hint> hints = this.hints;
+        if (hints != null)
+            this.paintHints(g, snapshot, hints);
+
         // ----------------------------------------------
         // Paint the animated checker.
 
         if (this.animated != null) {
-            // Calculate move properties.
-            int[] board = this.delegate.board();
-
             int astart = this.animated.start;
             int aend = this.animated.end;
 
-            // Calculate move properties and account for taking off.
-            Point origin = this.getCheckerPosition(astart, Math.abs(board[astart]) - 1);
-            Point target = this.getCheckerPosition(aend, Math.abs(board[aend]));
-            if (aend == 0 || aend == 25) target = new Point(this.getWidth() / 2, this.getHeight() - PADDING / 2);
+            Point origin = this.animated.origin;
+            Point target = this.animated.target;
 
-            int x = origin.x + (target.x - origin.x) * this.animated.frame / FRAMES;
-            int y = origin.y + (target.y - origin.y) * this.animated.frame / FRAMES;
+            int x = origin.x + (int) ((target.x - origin.x) * this.animated.progress);
+            int y = origin.y + (int) ((target.y - origin.y) * this.animated.progress);
 
             int diff = aend - astart;
             int direction = diff / Math.abs(diff);
@@ -421,7 +699,7 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
         // ----------------------------------------------
 
         // Paint the winning screen.
-        Game.State state = this.delegate.state();
+        Game.State state = snapshot.state;
         if (state == Game.State.WIN_BLACK || state == Game.State.WIN_WHITE) {
             // Draw the text.
             String message = "";
@@ -440,14 +718,113 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
         }
 
         // Paint the alert if necessary.
-        if (movable.isEmpty()) {
+        if (this.interactive && movable.isEmpty()) {
             g.setFont(new Font("Arial", Font.BOLD, 20));
             this.paintMessage(g, "You can't move anything. Click anywhere to skip the turn.");
         }
     }
 
+    /**
+     * Drops cached images when the board was resized or players changed their
+     * colors since the last paint.
+     */
+    private void invalidateCaches() {
+        Dimension size = this.getSize();
+        Color[] colors = {
+                this.delegate.white().checker, this.delegate.white().point,
+                this.delegate.black().checker, this.delegate.black().point
+        };
+
+        if (size.equals(this.cachedSize) && Arrays.equals(colors, this.cachedColors))
+            return;
+
+        // Sprites are shared by all views, so the first paint of a view leaves them be.
+        if (this.cachedSize != null)
+            CheckerSprites.clear();
+        this.boardLayer = null;
+
+        this.cachedSize = size;
+        this.cachedColors = colors;
+    }
+
+    /**
+     * Returns the image of the static parts of the board, drawing it first if
+     * needed.
+     */
+    private Image getBoardLayer() {
+        if (this.boardLayer != null)
+            return this.boardLayer;
+
+        int width = Math.max(1, this.getWidth());
+        int height = Math.max(1, this.getHeight());
+
+        // Compatible images are copied to the screen without conversion.
+        GraphicsConfiguration configuration = this.getGraphicsConfiguration();
+        BufferedImage layer;
+        if (configuration != null)
+            layer = configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        else
+            layer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics g = layer.createGraphics();
+        this.paintBoard(g);
+        for (int i = 1; i < 25; i++) {
+            this.paintPoint(g, i);
+        }
+        g.dispose();
+
+        this.boardLayer = layer;
+        return layer;
+    }
+
     // MARK: - Components
 
+    /**
+     * Paints the hinted plays as arrows on the board, the best one on top, and
+     * lists them in the corner of the screen.
+     */
+    private void paintHints(Graphics g, BoardSnapshot snapshot, List<Hint> hints) {
+        Graphics2D g2d = (Graphics2D) g;
+        Object antialiasing = g2d.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        int count = Math.min(hints.size(), HINT_COLORS.length);
+
+        for (int i = count - 1; i >= 0; i--) {
+            Hint hint = hints.get(i);
+            g2d.setColor(HINT_COLORS[i]);
+            g2d.setStroke(new BasicStroke(2 + (float) (6 * hint.share), BasicStroke.CAP_ROUND,
+                    BasicStroke.JOIN_ROUND));
+
+            for (int[] move : hint.moves) {
+                Point origin = this.getCheckerPosition(move[0], Math.abs(snapshot.checkers(move[0])) - 1);
+                Point target = this.getCheckerPosition(move[1], Math.abs(snapshot.checkers(move[1])));
+                if (move[1] == 0 || move[1] == 25)
+                    target = new Point(this.getWidth() / 2, this.getHeight() - PADDING / 2);
+
+                g2d.drawLine(origin.x, origin.y, target.x, target.y);
+                g2d.fillOval(target.x - 4, target.y - 4, 8, 8);
+            }
+        }
+
+        g2d.setStroke(DEFAULT_STROKE);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing);
+
+        // List the plays with their share of the search and their win estimate below the board.
+        g.setFont(new Font("Arial", Font.BOLD, 12));
+        int height = g.getFontMetrics().getHeight();
+        int top = this.getHeight() - PADDING;
+
+        for (int i = 0; i < count; i++) {
+            Hint hint = hints.get(i);
+            String line = String.format(Locale.ROOT, "%s  %.0f%%  win %.0f%%", hint.label, 100 * hint.share,
+                    100 * hint.win);
+
+            g.setColor(HINT_COLORS[i]);
+            g.drawString(line, PADDING, top + (i + 1) * height);
+        }
+    }
+
     /**
      * Paints the result of the game.
      */
@@ -533,21 +910,22 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
          */
         boolean odd = index % 2 == 1;
 
-        Point base = this.getPointBase(index);
+        BoardLayout layout = this.getBoardLayout();
+        Point base = layout.base(index);
 
         // Set remaining points that depend on the already set ones.
-        int x1 = base.x - this.getPointWidth() / 2;
+        int x1 = base.x - layout.pointWidth / 2;
         int y1 = base.y;
-        int x2 = base.x + this.getPointWidth() / 2;
+        int x2 = base.x + layout.pointWidth / 2;
         int y2 = base.y;
         int x3 = base.x;
         int y3 = 0;
 
         if (odd) {
-            y3 = base.y + this.getPointOrientation(index) * this.getPointHeight();
+            y3 = base.y + BoardLayout.orientation(index) * layout.pointHeight;
             g.setColor(this.delegate.black().point);
         } else {
-            y3 = base.y + this.getPointOrientation(index) * (4 * this.getPointHeight() / 5);
+            y3 = base.y + BoardLayout.orientation(index) * (4 * layout.pointHeight / 5);
             g.setColor(this.delegate.white().point);
         }
 
@@ -559,143 +937,64 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
     }
 
     /**
-     * Returns where on the screen the point should start.
+     * Returns the layout of the board for the current size of the view.
      */
-    private Point getPointBase(int index) {
-        // Screen sizes
-        int width = this.getWidth();
-        int height = this.getHeight();
-
-        int margin = BOARD_BORDER + PADDING;
-
-        /*
-         * We use modulo indexes to calculate the relative position of the checker in a
-         * given group.
-         *
-         * - n tells the position in a single block of six points - i tells relative
-         * position on a given side of the board
-         */
-        int n = (index - 1) % 6;
-        int i = (index - 1) % 12;
-
-        int x = 0, y = 0;
-
-        // black bar
-        if (index == 0) {
-            x = width / 2;
-            y = height / 2 + BOARD_BORDER;
-        }
-
-        // bottom
-        if (1 <= index && index < 13) {
-            y = height - margin;
-
-            // left
-            if (0 <= i && i < 6) {
-                x = width - margin - (1 + 2 * n) * this.getPointWidth() / 2;
-            }
-            // right
-            if (6 <= i && i < 12) {
-                x = margin + (11 - 2 * n) * this.getPointWidth() / 2;
-            }
+    private BoardLayout getBoardLayout() {
+        BoardLayout layout = this.boardLayout;
+        if (layout == null || layout.width != this.getWidth() || layout.height != this.getHeight()) {
+            layout = new BoardLayout(this.getWidth(), this.getHeight());
+            this.boardLayout = layout;
         }
-
-        // top
-        if (13 <= index && index < 25) {
-            y = margin;
-
-            // left
-            if (0 <= i && i < 6) {
-                x = margin + (1 + 2 * n) * this.getPointWidth() / 2;
-            }
-            // right
-            if (6 <= i && i < 12) {
-                x = width - margin - (11 - 2 * n) * this.getPointWidth() / 2;
-            }
-        }
-
-        // white bar
-        if (index == 25) {
-            x = width / 2;
-            y = height / 2 - BOARD_BORDER;
-        }
-
-        return new Point(x, y);
+        return layout;
     }
 
-    /**
-     * Tells the direction of the point based on the side of the board it is on.
-     */
-    private int getPointOrientation(int index) {
-
-        if (1 <= index && index < 13)
-            return -1;
-
-        if (index <= 13 && index < 25)
-            return 1;
-
-        // bar
-        if (index == 0)
-            return 1;
+    private Point getPointBase(int index) {
+        return this.getBoardLayout().base(index);
+    }
 
-        if (index == 25)
-            return -1;
+    private Point getCheckerPosition(int index, int checker) {
+        return this.getBoardLayout().checker(index, checker);
+    }
 
-        return 1;
+    private int getCheckerSize() {
+        return this.getBoardLayout().checkerSize;
     }
 
     /**
-     * Returns the width of a single point in the board.
+     * Returns the area a checker with the given center and radius paints over,
+     * including its edge.
      */
-    private int getPointWidth() {
-        int width = this.getWidth();
-        int margin = PADDING + BOARD_BORDER;
-        int space = width - 2 * margin - BAR_WIDTH;
-
-        return space / 12;
+    private Rectangle getCheckerBounds(Point center, int r) {
+        int margin = 3;
+        return new Rectangle(center.x - r - margin, center.y - r - margin, 2 * (r + margin), 2 * (r + margin));
     }
 
     /**
-     * Returns the height of a point based on the height of the board.
+     * Returns the area the dragged checker covers at the current mouse position.
      */
-    private int getPointHeight() {
-        int height = this.getHeight();
-        int margin = BOARD_BORDER + PADDING;
-        int space = height - 2 * margin - BOARD_BORDER;
-
-        return space / 2;
+    private Rectangle getDraggedBounds() {
+        return this.getCheckerBounds(this.mouse, this.getCheckerSize() / 2);
     }
 
     /**
-     * Returns the position of the checker on the board given the index of the point
-     * and the checker position.
+     * Returns the area the animated checker covers on its way.
      */
-    private Point getCheckerPosition(int index, int checker) {
-        // Calculate the size of each checker and the number of checkers in each row.
-        int size = this.getCheckerSize();
-        int row = this.getPointHeight() / size;
-
-        // Direction tells how we should add next checkers to the point.
-        int direction = this.getPointOrientation(index);
-        Point base = this.getPointBase(index);
-
-        int x = base.x;
-        int y = base.y + direction * (size / 2);
+    private Rectangle getAnimationBounds(AnimatedChecker checker) {
+        int r = this.getCheckerSize() / 2;
 
-        // Coordinates calculation.
-        int offset = (checker / row) * CHECKER_OFFSET;
-        int margin = (checker % row) * size;
-        int sx = x;
-        int sy = y + direction * (margin + offset);
-
-        return new Point(sx, sy);
+        Rectangle bounds = this.getCheckerBounds(checker.origin, r);
+        bounds.add(this.getCheckerBounds(checker.target, r));
+        return bounds;
     }
 
     /**
-     * Returns the size of the checker based on the size of the board.
+     * Repaints the checker that shows which player is on turn.
      */
-    private int getCheckerSize() {
-        return this.getPointWidth() * 4 / 5;
+    private void repaintIndicator() {
+        if (this.indicator != null)
+            this.repaint(this.indicator);
+        else
+            this.repaint();
     }
 
     /**
@@ -710,65 +1009,12 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
     }
 
     /**
-     * Paints a checker at a given location and a given radius.
+     * Paints a checker at a given location and a given radius. Checkers come from
+     * the sprite cache, so this is a single image copy once a checker of the same
+     * size and colors has been painted.
      */
-    public static void paintChecker(Graphics _g, int x, int y, int r, Color color, Color edge) {
-        Graphics2D g = (Graphics2D) _g;
-
-        // We start by drawing the outer and inner edges of the checker.
-        g.setColor(color);
-        g.fillOval(x - r, y - r, 2 * r, 2 * r);
-
-        // Draw the edge of the checker.
-        g.setColor(edge);
-        g.setStroke(new BasicStroke(2));
-        g.drawOval(x - r, y - r, 2 * r, 2 * r);
-
-        // Reset stroke.
-        g.setStroke(new BasicStroke(1));
-
-        /*
-         * To draw the pattern we switch to the polar system as it's easier to process
-         * values there.
-         */
-        Color[] colors = {
-                new Color(242, 56, 90),
-                new Color(245, 165, 3),
-                new Color(54, 177, 191, 75)
-        };
-        int precision = 420;
-        int leaves = 6;
-
-        double p = (double) r * 0.8;
-        double offset = 2 * Math.PI / (colors.length);
-
-        g.setColor(CHECKER_BACKGROUND);
-        g.fillOval(x - (int) p, y - (int) p, 2 * (int) p, 2 * (int) p);
-
-        for (int c = 0; c < colors.length; c++) {
-            p = 0.8 * p;
-            double step = 2 * Math.PI / (double) precision;
-
-            int[] xs = new int[precision];
-            int[] ys = new int[precision];
-
-            for (int i = 0; i < precision; i++) {
-                double fi = step * i;
-                double pr = Math.sin(leaves * fi + offset * c) * p;
-
-                int px = x + (int) (Math.cos(fi) * pr);
-                int py = y + (int) (Math.sin(fi) * pr);
-
-                xs[i] = px;
-                ys[i] = py;
-            }
-
-            Color pattern = colors[c];
-            g.setColor(pattern);
-
-            g.drawPolyline(xs, ys, precision);
-        }
-
+    public static void paintChecker(Graphics g, int x, int y, int r, Color color, Color edge) {
+        CheckerSprites.paint(g, x, y, r, color, edge);
     }
 
     public static void paintChecker(Graphics g, int x, int y, int r, Color color, boolean active) {
@@ -782,7 +1028,7 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
     /**
      * Paints a possible target where the user may drop the checker.
      */
-    private void paintDrop(Graphics g, int point, boolean targeted) {
+    private void paintDrop(Graphics g, BoardSnapshot snapshot, int point, boolean targeted) {
         // Make sure we are on the board when drawing.
         if (point < 1 || 25 < point)
             return;
@@ -790,7 +1036,7 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
         int size = this.getCheckerSize() / 2;
 
         // Calculate the position of the next checker.
-        int checker = Math.abs(this.delegate.board()[point]);
+        int checker = Math.abs(snapshot.checkers(point));
         if (this.dragged != null && this.dragged == point)
             checker--;
 
@@ -808,11 +1054,11 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
      * Returns the number of checkers that are still on the board with the given
      * direction.
      */
-    private int remainingCheckers(int direction) {
+    private static int remainingCheckers(BoardSnapshot snapshot, int direction) {
         int checkers = 0;
-        int[] board = this.delegate.board();
 
-        for (int j : board) {
+        for (int i = 0; i < 26; i++) {
+            int j = snapshot.checkers(i);
             if (direction * j >= 0) checkers += direction * j;
         }
 
@@ -882,35 +1128,29 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
 
     @Override
     public void mousePressed(MouseEvent e) {
+        // Clicks during an animation first speed it up and then skip it.
+        if (this.animated != null) {
+            if (this.speed < SPEED_UP)
+                this.speed = SPEED_UP;
+            else
+                this.skipAnimation();
+            return;
+        }
+
         // Trigger the click event.
         EventObject event = new EventObject(this);
         this.delegate.onClick(event);
 
-        // Calculate drag.
-        int x = e.getX();
-        int y = e.getY();
-
-        int size = this.getCheckerSize();
+        BoardSnapshot snapshot = this.snapshot;
+        if (snapshot == null)
+            return;
 
         // Find the index of the point of the clicked checker.
-        int index = -1;
-
-        for (int i = 0; i < 26; i++) {
-            int checkers = Math.abs(this.delegate.board()[i]);
-
-            for (int j = 0; j < checkers; j++) {
-                Point coord = this.getCheckerPosition(i, j);
-
-                double diff = Math.sqrt(Math.pow(x - coord.x, 2) + Math.pow(y - coord.y, 2));
-
-                if (diff <= size)
-                    index = i;
-            }
-        }
+        int index = this.getBoardLayout().stackAt(e.getX(), e.getY(), snapshot);
 
         // Makes sure we actually clicked on a checker.
         if (index >= 0) {
-            int checkers = this.delegate.board()[index];
+            int checkers = snapshot.checkers(index);
             int direction = checkers / Math.abs(checkers);
 
             // Check if we are clicking on a computer checker.
@@ -932,16 +1172,18 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
 
     @Override
     public void mouseDragged(MouseEvent e) {
+        if (this.dragged == null)
+            return;
+
+        Rectangle previous = this.getDraggedBounds();
+        Integer targeted = this.target;
         this.mouse = e.getPoint();
 
         int width = this.getWidth();
         int height = this.getHeight();
 
-        /*
-         * The distance of the closes droppable point.
-         */
+        // The point the checker would be dropped on.
         Integer point = null;
-        double closest = width + height;
 
         /*
          * Check if mouse is out of board bounds (i.e. dragging out) and consider the
@@ -952,33 +1194,24 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
          */
         if (mouse.x < PADDING || mouse.y < PADDING || mouse.x > width - PADDING || mouse.y > height - PADDING) {
             point = (1 + direction) / 2 * 25;
-            closest = 0;
         }
 
         // Find the closest point to the mouse.
-        for (int i = 1; i < 25; i++) {
-            Point coord = this.getPointBase(i);
-
-            int dx = this.mouse.x - coord.x;
-            int dy = this.mouse.y - coord.y;
-            double diff = Math.sqrt(Math.pow(dx, 2) + Math.pow(dy, 2));
-
-            /*
-             * We always fix the diff, but only make a point selection if it can actually be
-             * selected.
-             */
-            if (diff <= closest) {
-                closest = diff;
-                point = i;
-            }
-        }
+        if (point == null)
+            point = this.getBoardLayout().pointAt(this.mouse.x, this.mouse.y);
 
         if (this.drops.contains(point))
             this.target = point;
         else
             this.target = null;
 
-        this.repaint();
+        // A new target changes the markers and maybe the background, otherwise only the checker moved.
+        if (!Objects.equals(targeted, this.target)) {
+            this.repaint();
+        } else {
+            previous.add(this.getDraggedBounds());
+            this.repaint(previous);
+        }
     }
 
     @Override
@@ -1007,36 +1240,6 @@ public class BoardView extends JPanel implements ActionListener, MouseListener,
     }
 
 
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        // Process the animation timer.
-        if (e.getSource() == this.animation) {
-            // Check that we are animating.
-            if (this.animated == null) return;
-
-            this.animated.frame++;
-
-            // Stop the animation if needed.
-            if (this.animated.frame == FRAMES) {
-                int start = this.animated.start;
-                int end = this.animated.end;
-
-                this.animation.stop();
-                this.animated = null;
-
-                this.delegate.onAnimationComplete(start, end);
-            }
-
-            this.repaint();
-        }
-
-
-        // Process the indicator timer.
-        if (e.getSource() == this.alive) {
-            this.repaint();
-        }
-    }
-
     //
 
     @Override
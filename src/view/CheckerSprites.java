@@ -0,0 +1,177 @@
+package view;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * CheckerSprites keeps pre-rendered checkers so that painting a checker is a
+ * single image copy instead of drawing its pattern point by point.
+ * <p>
+ * Sprites are keyed by radius, fill and edge color. The least recently used
+ * sprites are dropped once there are too many of them, and views clear the cache
+ * when the board is resized or players change their colors.
+ */
+final class CheckerSprites {
+
+    /**
+     * Most sprites we keep. A board needs about a dozen of them at once.
+     */
+    private static final int CAPACITY = 64;
+
+    /**
+     * Room around the checker for the edge stroke and antialiasing.
+     */
+    private static final int MARGIN = 2;
+
+    private static final Color CHECKER_BACKGROUND = new Color(233, 241, 223);
+
+    private static final Color[] PATTERN = {
+            new Color(242, 56, 90),
+            new Color(245, 165, 3),
+            new Color(54, 177, 191, 75)
+    };
+
+    private static final BasicStroke EDGE_STROKE = new BasicStroke(2);
+    private static final BasicStroke PATTERN_STROKE = new BasicStroke(1);
+
+    private static final LinkedHashMap<Key, BufferedImage> sprites =
+            new LinkedHashMap<Key, BufferedImage>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, BufferedImage> eldest) {
+                    return this.size() > CAPACITY;
+                }
+            };
+
+    private CheckerSprites() {
+    }
+
+    // MARK: - Key
+
+    private static final class Key {
+        final int radius;
+        final Color fill;
+        final Color edge;
+
+        Key(int radius, Color fill, Color edge) {
+            this.radius = radius;
+            this.fill = fill;
+            this.edge = edge;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+
+            Key key = (Key) other;
+            return this.radius == key.radius && this.fill.equals(key.fill) && this.edge.equals(key.edge);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.radius, this.fill, this.edge);
+        }
+    }
+
+    // MARK: - Methods
+
+    /**
+     * Draws a checker centered at the given location.
+     */
+    static void paint(Graphics g, int x, int y, int r, Color fill, Color edge) {
+        if (r <= 0)
+            return;
+
+        BufferedImage sprite = get(r, fill, edge);
+        g.drawImage(sprite, x - r - MARGIN, y - r - MARGIN, null);
+    }
+
+    /**
+     * Forgets all sprites.
+     */
+    static synchronized void clear() {
+        sprites.clear();
+    }
+
+    private static BufferedImage get(int r, Color fill, Color edge) {
+        Key key = new Key(r, fill, edge);
+
+        synchronized (CheckerSprites.class) {
+            BufferedImage sprite = sprites.get(key);
+            if (sprite != null)
+                return sprite;
+        }
+
+        // Rendering happens outside of the lock so that other threads may paint meanwhile.
+        BufferedImage sprite = render(r, fill, edge);
+
+        synchronized (CheckerSprites.class) {
+            sprites.put(key, sprite);
+        }
+
+        return sprite;
+    }
+
+    /**
+     * Renders a checker with the given radius into a new image.
+     */
+    private static BufferedImage render(int r, Color fill, Color edge) {
+        int size = 2 * (r + MARGIN);
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+
+        int x = r + MARGIN;
+        int y = r + MARGIN;
+
+        // We start by drawing the outer and inner edges of the checker.
+        g.setColor(fill);
+        g.fillOval(x - r, y - r, 2 * r, 2 * r);
+
+        // Draw the edge of the checker.
+        g.setColor(edge);
+        g.setStroke(EDGE_STROKE);
+        g.drawOval(x - r, y - r, 2 * r, 2 * r);
+        g.setStroke(PATTERN_STROKE);
+
+        /*
+         * To draw the pattern we switch to the polar system as it's easier to process
+         * values there.
+         */
+        int precision = 420;
+        int leaves = 6;
+
+        double p = (double) r * 0.8;
+        double offset = 2 * Math.PI / (PATTERN.length);
+
+        g.setColor(CHECKER_BACKGROUND);
+        g.fillOval(x - (int) p, y - (int) p, 2 * (int) p, 2 * (int) p);
+
+        for (int c = 0; c < PATTERN.length; c++) {
+            p = 0.8 * p;
+            double step = 2 * Math.PI / (double) precision;
+
+            int[] xs = new int[precision];
+            int[] ys = new int[precision];
+
+            for (int i = 0; i < precision; i++) {
+                double fi = step * i;
+                double pr = Math.sin(leaves * fi + offset * c) * p;
+
+                xs[i] = x + (int) (Math.cos(fi) * pr);
+                ys[i] = y + (int) (Math.sin(fi) * pr);
+            }
+
+            g.setColor(PATTERN[c]);
+            g.drawPolyline(xs, ys, precision);
+        }
+
+        g.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,182 @@
+package view;
+
+import java.awt.Window;
+import java.awt.event.*;
+import java.util.ArrayList;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * FrameScheduler drives everything that moves on a component from a single timer
+ * on the event thread.
+ * <p>
+ * Animations get the time since they started, so they look the same however many
+ * frames we manage to paint; when the event thread falls behind, timer events
+ * are coalesced and frames are skipped. The timer only runs while there is an
+ * animation and the component is showing in a focused window. Animations that
+ * are still running when the component is hidden or loses focus are finished at
+ * once.
+ */
+final class FrameScheduler implements ActionListener, HierarchyListener, WindowFocusListener {
+
+    /**
+     * Default frames per second, overridable with the backgammon.fps system
+     * property.
+     */
+    static final int FPS = Integer.getInteger("backgammon.fps", 60);
+
+    interface Animation {
+        /**
+         * Advances the animation to the given number of nanoseconds since it started
+         * and tells whether it wants more frames.
+         */
+        boolean frame(long elapsed);
+
+        /**
+         * Called instead of further frames when the animation can't run any more.
+         */
+        void finish();
+    }
+
+    private static class Running {
+        final Animation animation;
+        final long start;
+
+        Running(Animation animation, long start) {
+            this.animation = animation;
+            this.start = start;
+        }
+    }
+
+    // MARK: - State
+
+    private final JComponent component;
+    private final Timer timer;
+
+    /**
+     * Called when frames can be shown again so the component can restart its
+     * animations.
+     */
+    private final Runnable resume;
+    private final ArrayList<Running> animations;
+
+    /**
+     * The window we listen to for focus changes.
+     */
+    private Window window;
+
+    // MARK: - Constructor
+
+    FrameScheduler(JComponent component, int fps, Runnable resume) {
+        this.component = component;
+        this.resume = resume;
+        this.animations = new ArrayList<>();
+
+        this.timer = new Timer(1000 / Math.max(1, fps), this);
+        this.timer.setRepeats(true);
+        this.timer.setCoalesce(true);
+
+        component.addHierarchyListener(this);
+    }
+
+    // MARK: - Methods
+
+    /**
+     * Starts an animation. It must be called on the event thread.
+     */
+    void start(Animation animation) {
+        if (!this.canRun()) {
+            animation.finish();
+            return;
+        }
+
+        this.animations.add(new Running(animation, System.nanoTime()));
+        this.timer.start();
+    }
+
+    /**
+     * Tells whether an animation is running.
+     */
+    boolean isRunning(Animation animation) {
+        for (Running running : this.animations) {
+            if (running.animation == animation)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether frames can be shown at the moment.
+     */
+    private boolean canRun() {
+        return this.component.isShowing() && this.window != null && this.window.isFocused();
+    }
+
+    /**
+     * Finishes all animations and stops the timer.
+     */
+    private void stop() {
+        this.timer.stop();
+
+        // Animations may start new ones when they finish, which get finished as well.
+        while (!this.animations.isEmpty()) {
+            ArrayList<Running> finished = new ArrayList<>(this.animations);
+            this.animations.clear();
+
+            for (Running running : finished) {
+                running.animation.finish();
+            }
+        }
+    }
+
+    // MARK: - Events
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        long now = System.nanoTime();
+
+        // Animations may start others while we go through them.
+        ArrayList<Running> current = new ArrayList<>(this.animations);
+        for (Running running : current) {
+            if (!running.animation.frame(now - running.start))
+                this.animations.remove(running);
+        }
+
+        if (this.animations.isEmpty())
+            this.timer.stop();
+    }
+
+    @Override
+    public void hierarchyChanged(HierarchyEvent e) {
+        if ((e.getChangeFlags() & (HierarchyEvent.SHOWING_CHANGED | HierarchyEvent.PARENT_CHANGED)) == 0)
+            return;
+
+        // Follow the window the component is in.
+        Window window = SwingUtilities.getWindowAncestor(this.component);
+        if (window != this.window) {
+            if (this.window != null)
+                this.window.removeWindowFocusListener(this);
+            if (window != null)
+                window.addWindowFocusListener(this);
+            this.window = window;
+        }
+
+        if (this.canRun())
+            this.resume.run();
+        else
+            this.stop();
+    }
+
+    @Override
+    public void windowGainedFocus(WindowEvent e) {
+        if (this.canRun())
+            this.resume.run();
+    }
+
+    @Override
+    public void windowLostFocus(WindowEvent e) {
+        this.stop();
+    }
+}